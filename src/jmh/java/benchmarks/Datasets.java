@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.util.Random;
+
+// Data sets shared by the benchmarks. Every data set spans [0, 1] with the given number of samples of a smooth function:
+//   uniform     equally spaced samples, found in O(1) by the locator but rarely hit exactly by the grid
+//   nonuniform  samples moved randomly by up to 40% of the spacing, found by searching
+//   ongrid      samples placed on points of the grid a + k·h with h = 1/steps, so every sample is an exact hit
+final class Datasets {
+    private Datasets(){
+    }
+
+    // Returns {x, f(x)}. For ongrid data sets, steps must be a multiple of samples - 1
+    static double[][] create(String spacing, int samples, int steps){
+        double[] x = new double[samples], fx = new double[samples];
+        Random random = new Random(42);
+        double spacingWidth = 1.0 / (samples - 1), h = 1.0 / steps;
+
+        for (int i = 0; i < samples; i++){
+            switch (spacing){
+                case "uniform":
+                    x[i] = i * spacingWidth;
+                    break;
+                case "nonuniform":
+                    x[i] = (i == 0 || i == samples - 1) ? i * spacingWidth
+                            : (i + 0.8 * (random.nextDouble() - 0.5)) * spacingWidth;
+                    break;
+                case "ongrid":
+                    if (steps % (samples - 1) != 0)
+                        throw new IllegalArgumentException("Steps must be a multiple of samples - 1.");
+                    x[i] = ((long) i * (steps / (samples - 1))) * h;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown spacing " + spacing);
+            }
+            fx[i] = Math.sin(8 * x[i]) + x[i] * x[i];
+        }
+        return new double[][]{x, fx};
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Time to read a CSV file of the given number of rows, loading it with DataReader and integrating it while streaming
+// it with StreamingIntegration. Rows per second is the number of rows divided by the score
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileParsingBenchmark {
+    private static final MethodHandle READ = Handles.staticMethod("DataReader", "read",
+            Handles.type("Dataset"), File.class);
+    private static final MethodHandle NEW_STREAMING = Handles.constructor("StreamingIntegration",
+            int.class, double.class, boolean.class);
+    private static final MethodHandle INTEGRATE_FILE = Handles.method("StreamingIntegration", "integrate",
+            double.class, File.class);
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    @Param({"uniform", "nonuniform"})
+    public String spacing;
+
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        double[][] data = Datasets.create(spacing, rows, rows - 1);
+        file = File.createTempFile("benchmark", ".csv");
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++)
+                writer.println(data[0][i] + "," + data[1][i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown(){
+        file.delete();
+    }
+
+    @Benchmark
+    public Object read() throws Throwable {
+        return READ.invoke(file);
+    }
+
+    @Benchmark
+    public double stream() throws Throwable {
+        Object streaming = NEW_STREAMING.invoke(rows - 1, 1.0 / (rows - 1), true);
+        return (double) INTEGRATE_FILE.invokeExact(streaming, file);
+    }
+}
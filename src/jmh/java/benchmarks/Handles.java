@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// JMH does not accept benchmarks in the default package, and classes of a named package cannot refer to the ones of
+// the default package by name. The benchmarks reach the program through method handles instead; stored in static
+// final fields they are constant-folded by the JIT, so calls through them cost the same as direct calls.
+final class Handles {
+    private Handles(){
+    }
+
+    static Class<?> type(String className){
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    static MethodHandle constructor(String className, Class<?>... parameters){
+        try {
+            return lookup(className).findConstructor(type(className), MethodType.methodType(void.class, parameters));
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    static MethodHandle staticMethod(String className, String name, Class<?> returnType, Class<?>... parameters){
+        try {
+            return lookup(className).findStatic(type(className), name, MethodType.methodType(returnType, parameters));
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    // The receiver is passed as an Object so that the handle can be invoked with invokeExact
+    static MethodHandle method(String className, String name, Class<?> returnType, Class<?>... parameters){
+        try {
+            MethodHandle handle = lookup(className).findVirtual(type(className), name,
+                    MethodType.methodType(returnType, parameters));
+            return handle.asType(handle.type().changeParameterType(0, Object.class));
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    // Program classes and benchmarks share the unnamed module, which grants access to package-private members
+    private static MethodHandles.Lookup lookup(String className) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type(className), MethodHandles.lookup());
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Time of NumericalIntegration.integrate with N samples and n sub-intervals, for both rules, both interpolants and
+// both weighted sum kernels. The forked JVM gets the vector module so that the vector kernel can load
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class IntegrationBenchmark {
+    private static final MethodHandle NEW_INTEGRATION = Handles.constructor("NumericalIntegration",
+            double[].class, double[].class);
+    private static final MethodHandle INTEGRATE = Handles.method("NumericalIntegration", "integrate",
+            double.class, int.class, double.class, boolean.class);
+    private static final MethodHandle NATURAL_SPLINE = Handles.staticMethod("CubicSpline", "natural",
+            Handles.type("CubicSpline"), double[].class, double[].class);
+    private static final MethodHandle SET_INTERPOLATOR = Handles.method("NumericalIntegration", "setInterpolator",
+            void.class, Handles.type("Interpolator"));
+    private static final MethodHandle SET_VECTORIZED = Handles.method("NumericalIntegration", "setVectorized",
+            void.class, boolean.class);
+
+    // Both are chosen so that the on-grid data sets can be built, n must be a multiple of N - 1
+    @Param({"1001", "100001"})
+    public int samples;
+
+    @Param({"100000", "1000000"})
+    public int steps;
+
+    @Param({"uniform", "nonuniform", "ongrid"})
+    public String spacing;
+
+    @Param({"trapezoidal", "simpsons"})
+    public String rule;
+
+    // Interpolant between the samples: quadratic Lagrange or natural cubic spline
+    @Param({"lagrange", "spline"})
+    public String interpolation;
+
+    // Weighted sum kernel: the scalar loop, or the SIMD kernel over chunks of the grid
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private Object integration;
+    private double h;
+    private boolean trapRule;
+
+    @Setup
+    public void setUp() throws Throwable {
+        double[][] data = Datasets.create(spacing, samples, steps);
+        integration = NEW_INTEGRATION.invoke(data[0], data[1]);
+        if (interpolation.equals("spline"))
+            SET_INTERPOLATOR.invoke(integration, NATURAL_SPLINE.invoke(data[0], data[1]));
+        SET_VECTORIZED.invoke(integration, kernel.equals("vector"));
+        h = 1.0 / steps;
+        trapRule = rule.equals("trapezoidal");
+    }
+
+    @Benchmark
+    public double integrate() throws Throwable {
+        return (double) INTEGRATE.invokeExact(integration, steps, h, trapRule);
+    }
+}
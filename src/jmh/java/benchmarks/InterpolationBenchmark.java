@@ -0,0 +1,125 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Cost of a single random lookup: locating the interval, interpolating over a known subset with either interpolant, and
+// both together. The queries of the ongrid data sets are the samples themselves, so they measure the exact-hit path
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpolationBenchmark {
+    private static final int QUERIES = 4096;
+    private static final MethodHandle NEW_LOCATOR = Handles.constructor("IntervalLocator", double[].class);
+    private static final MethodHandle LOWER_BOUND = Handles.method("IntervalLocator", "lowerBound",
+            int.class, double.class);
+    private static final MethodHandle FIRST_INDEX_OF_SUBSET = Handles.staticMethod("NumericalIntegration",
+            "firstIndexOfSubset", int.class, int.class, int.class);
+    private static final MethodHandle LAGRANGE = Handles.staticMethod("NumericalIntegration",
+            "lagrangeInterpolation", double.class, double[].class, double[].class, int.class, double.class);
+    private static final MethodHandle NEW_INTEGRATION = Handles.constructor("NumericalIntegration",
+            double[].class, double[].class);
+    private static final MethodHandle FUNCTION_VALUE = Handles.method("NumericalIntegration", "getFunctionValue",
+            double.class, double.class);
+    private static final MethodHandle NATURAL_SPLINE = Handles.staticMethod("CubicSpline", "natural",
+            Handles.type("CubicSpline"), double[].class, double[].class);
+    private static final MethodHandle SPLINE_INTERPOLATE = Handles.method("CubicSpline", "interpolate",
+            double.class, int.class, double.class);
+    private static final MethodHandle SET_INTERPOLATOR = Handles.method("NumericalIntegration", "setInterpolator",
+            void.class, Handles.type("Interpolator"));
+
+    @Param({"1001", "1000001"})
+    public int samples;
+
+    @Param({"uniform", "nonuniform", "ongrid"})
+    public String spacing;
+
+    // Interpolant used by functionValue: quadratic Lagrange or natural cubic spline
+    @Param({"lagrange", "spline"})
+    public String interpolation;
+
+    private double[] xValues;
+    private double[] fxValues;
+    private Object locator;
+    private Object integration;
+    private Object spline;
+    private double[] queries;
+    private int[] lowerBounds;
+    private int[] firstIndices;
+
+    @Setup
+    public void setUp() throws Throwable {
+        double[][] data = Datasets.create(spacing, samples, samples - 1);
+        xValues = data[0];
+        fxValues = data[1];
+        locator = NEW_LOCATOR.invoke(xValues);
+        integration = NEW_INTEGRATION.invoke(xValues, fxValues);
+        spline = NATURAL_SPLINE.invoke(xValues, fxValues);
+        if (interpolation.equals("spline"))
+            SET_INTERPOLATOR.invoke(integration, spline);
+
+        Random random = new Random(7);
+        queries = new double[QUERIES];
+        lowerBounds = new int[QUERIES];
+        firstIndices = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++){
+            queries[i] = spacing.equals("ongrid") ? xValues[random.nextInt(samples)] : random.nextDouble();
+            lowerBounds[i] = (int) LOWER_BOUND.invokeExact(locator, queries[i]);
+            firstIndices[i] = (int) FIRST_INDEX_OF_SUBSET.invokeExact(lowerBounds[i], samples);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int locate() throws Throwable {
+        int sum = 0;
+        for (double query : queries)
+            sum += (int) FIRST_INDEX_OF_SUBSET.invokeExact((int) LOWER_BOUND.invokeExact(locator, query), samples);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public double lagrange() throws Throwable {
+        double sum = 0;
+        for (int i = 0; i < QUERIES; i++)
+            sum += (double) LAGRANGE.invokeExact(xValues, fxValues, firstIndices[i], queries[i]);
+        return sum;
+    }
+
+    // Horner step of the spline on a located interval, the counterpart of lagrange
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public double spline() throws Throwable {
+        double sum = 0;
+        for (int i = 0; i < QUERIES; i++)
+            sum += (double) SPLINE_INTERPOLATE.invokeExact(spline, lowerBounds[i], queries[i]);
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public double functionValue() throws Throwable {
+        double sum = 0;
+        for (double query : queries)
+            sum += (double) FUNCTION_VALUE.invokeExact(integration, query);
+        return sum;
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Throughput of NumberLexer against the original regular expression parser, in tokens per second
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberLexerBenchmark {
+    private static final int TOKENS = 4096;
+    private static final MethodHandle PARSE = Handles.staticMethod("NumberLexer", "parse",
+            double.class, CharSequence.class, int.class, int.class);
+    private static final MethodHandle PARSE_LEGACY = Handles.staticMethod("NumberLexer", "parseLegacy",
+            double.class, String.class);
+
+    // Kind of tokens: plain decimals, multiples of pi and fractions, or a mix of the three
+    @Param({"decimal", "pi", "fraction", "mixed"})
+    public String tokens;
+
+    private String[] values;
+
+    @Setup
+    public void setUp(){
+        Random random = new Random(42);
+        values = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++){
+            String kind = tokens.equals("mixed") ? new String[]{"decimal", "pi", "fraction"}[i % 3] : tokens;
+            switch (kind){
+                case "pi":
+                    values[i] = (random.nextInt(8) + 1) + "pi" + ((i % 2 == 0) ? "/" + (random.nextInt(8) + 1) : "");
+                    break;
+                case "fraction":
+                    values[i] = random.nextInt(1000) + "/" + (random.nextInt(999) + 1);
+                    break;
+                default:
+                    values[i] = String.valueOf(Math.round(random.nextGaussian() * 1e6) / 1e3);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public double lexer() throws Throwable {
+        double sum = 0;
+        for (String value : values)
+            sum += (double) PARSE.invokeExact((CharSequence) value, 0, value.length());
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public double legacy() throws Throwable {
+        double sum = 0;
+        for (String value : values)
+            sum += (double) PARSE_LEGACY.invokeExact(value);
+        return sum;
+    }
+}
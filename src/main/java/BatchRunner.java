@@ -0,0 +1,354 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless entry point that runs a manifest of integration jobs concurrently and writes one result per job.
+//
+// Usage: BatchRunner <manifest> [results.csv | results.json | -] [threads]
+//
+// Each non-empty manifest line that does not start with # is a job "file,n,h,rule", where file is a .txt, .csv or .dset
+// data file (relative to the manifest) and rule is trapezoidal, simpsons, adaptive, romberg, gauss, kronrod,
+// sample-trapezoidal or sample-simpsons. The adaptive rule ignores n, and the adaptive and Romberg rules read the h
+// column as the tolerance. The Gauss rules read n as the number of panels; gauss reads the h column as its order and
+// kronrod ignores it. The sample rules integrate the samples directly and ignore both n and h. Results are written as
+// JSON when the output file ends in .json, and as CSV otherwise; without an output file, CSV goes to the standard
+// output. A data file with several f(x) columns gives one result per column, numbered from 1 in the channel field.
+//
+// The Trapezoidal and Simpson's Rules use the SIMD kernel when the JVM is started with
+// --add-modules jdk.incubator.vector -Dintegration.vector=true
+public class BatchRunner {
+    // Number of levels after which a Romberg job stops even if the tolerance is not met
+    private static final int ROMBERG_LEVELS = 20;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: BatchRunner <manifest> [results.csv | results.json | -] [threads]");
+            System.exit(2);
+        }
+        File manifest = new File(args[0]);
+        String output = (args.length > 1) ? args[1] : "-";
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        List<Job> jobs = readJobs(manifest);
+        List<JobResult> results = run(jobs, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (output.equals("-"))
+            writeCsv(results, System.out);
+        else {
+            try (PrintStream stream = new PrintStream(new File(output), StandardCharsets.UTF_8)) {
+                if (output.endsWith(".json"))
+                    writeJson(results, stream);
+                else
+                    writeCsv(results, stream);
+            }
+        }
+        System.err.printf(Locale.ROOT,
+                "%d jobs (%d results) in %.3f s (%.1f jobs/s) on %d thread(s), result cache: %s%n", jobs.size(),
+                results.size(), seconds, jobs.size() / seconds, threads, ResultCache.shared());
+    }
+
+    // Runs the jobs on a pool of the given number of threads and returns their results in manifest order, each job's
+    // channels in order
+    public static List<JobResult> run(List<Job> jobs, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<List<JobResult>>> futures = new ArrayList<>();
+            for (Job job : jobs)
+                futures.add(executor.submit(job::run));
+
+            List<JobResult> results = new ArrayList<>();
+            for (Future<List<JobResult>> future : futures) {
+                try {
+                    results.addAll(future.get());
+                } catch (ExecutionException exception) {
+                    throw new IllegalStateException(exception.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static List<Job> readJobs(File manifest) throws IOException {
+        File directory = manifest.getAbsoluteFile().getParentFile();
+        List<Job> jobs = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && !line.trim().startsWith("#"))
+                jobs.add(new Job(jobs.size() + 1, line, directory));
+        }
+        return jobs;
+    }
+
+    static void writeCsv(List<JobResult> results, PrintStream stream) {
+        stream.println("job,file,channel,rule,n,h,area,evaluations,load_ms,integrate_ms,error");
+        for (JobResult result : results) {
+            stream.printf(Locale.ROOT, "%d,%s,%s,%s,%s,%s,%s,%s,%.3f,%.3f,%s%n", result.job, csv(result.file),
+                    (result.channel > 0) ? result.channel : "", csv(result.rule), csv(result.n), csv(result.h),
+                    (result.error == null) ? result.area : "", (result.evaluations > 0) ? result.evaluations : "",
+                    result.loadMillis, result.integrateMillis,
+                    (result.error == null) ? "" : csv(result.error.replaceAll("\\s*\n", " ")));
+        }
+    }
+
+    static void writeJson(List<JobResult> results, PrintStream stream) {
+        stream.println("[");
+        for (int i = 0; i < results.size(); i++) {
+            JobResult result = results.get(i);
+            stream.printf(Locale.ROOT, "  {\"job\": %d, \"file\": %s, \"channel\": %s, \"rule\": %s, \"n\": %s, "
+                            + "\"h\": %s, \"area\": %s, \"evaluations\": %s, \"loadMillis\": %.3f, "
+                            + "\"integrateMillis\": %.3f, \"error\": %s}%s%n",
+                    result.job, json(result.file), (result.channel > 0) ? String.valueOf(result.channel) : "null",
+                    json(result.rule), json(result.n), json(result.h),
+                    (result.error == null && Double.isFinite(result.area)) ? String.valueOf(result.area) : "null",
+                    (result.evaluations > 0) ? String.valueOf(result.evaluations) : "null",
+                    result.loadMillis, result.integrateMillis, json(result.error),
+                    (i < results.size() - 1) ? "," : "");
+        }
+        stream.println("]");
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n"))
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        return value;
+    }
+
+    private static String json(String value) {
+        if (value == null)
+            return "null";
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\')
+                builder.append('\\').append(c);
+            else if (c == '\n')
+                builder.append("\\n");
+            else if (c < ' ')
+                builder.append(String.format("\\u%04x", (int) c));
+            else
+                builder.append(c);
+        }
+        return builder.append('"').toString();
+    }
+
+    // One line of the manifest
+    public static class Job {
+        private final int number;
+        private final String line;
+        private final File directory;
+
+        Job(int number, String line, File directory) {
+            this.number = number;
+            this.line = line;
+            this.directory = directory;
+        }
+
+        // Validates and runs the job, giving one result per channel of its data file. Errors are reported in the
+        // results instead of being thrown; a job that fails before its data is loaded gives a single result
+        List<JobResult> run() {
+            String[] fields = line.split(",", -1);
+            JobResult result = new JobResult(number, fields);
+            List<JobResult> results = new ArrayList<>();
+            long start = System.nanoTime();
+            try {
+                if (fields.length != 4)
+                    throw new InvalidJobException();
+                IntegrationRule rule = IntegrationRule.fromName(fields[3]);
+                if (rule == null)
+                    throw new InvalidJobException();
+
+                // Validate the parameters before loading the data
+                int n = 0, order = 0;
+                double h = 0;
+                if (rule == IntegrationRule.ADAPTIVE_SIMPSONS || rule == IntegrationRule.ROMBERG)
+                    h = parseTolerance(fields[2]);
+                else if (rule == IntegrationRule.GAUSS_LEGENDRE)
+                    order = parseN(fields[2], false);
+                else if (rule != IntegrationRule.GAUSS_KRONROD && !isSampleRule(rule))
+                    h = parseH(fields[2]);
+                if (rule != IntegrationRule.ADAPTIVE_SIMPSONS && !isSampleRule(rule))
+                    n = parseN(fields[1], rule == IntegrationRule.SIMPSONS);
+
+                File file = new File(fields[0].trim());
+                if (!file.isAbsolute())
+                    file = new File(directory, fields[0].trim());
+                Dataset dataset = DataReader.read(file);
+                long loaded = System.nanoTime();
+                result.loadMillis = (loaded - start) / 1e6;
+
+                // The grid rules integrate all the channels in a single walk, whose time is shared among them. Like the
+                // single-channel runs, it uses the shared cache and the kernel set by -Dintegration.vector
+                double[][] channels = dataset.getChannels();
+                if (channels.length > 1 && (rule == IntegrationRule.TRAPEZOIDAL || rule == IntegrationRule.SIMPSONS)) {
+                    MultiChannelIntegration multiChannel = new MultiChannelIntegration(dataset);
+                    multiChannel.setCache(ResultCache.shared());
+                    double[] areas = multiChannel.integrate(n, h, rule == IntegrationRule.TRAPEZOIDAL);
+                    double millis = (System.nanoTime() - loaded) / 1e6 / areas.length;
+                    for (int c = 0; c < areas.length; c++) {
+                        JobResult channelResult = result.forChannel(c + 1);
+                        channelResult.area = areas[c];
+                        channelResult.integrateMillis = millis;
+                        results.add(channelResult);
+                    }
+                    return results;
+                }
+
+                for (int c = 0; c < channels.length; c++) {
+                    long channelStart = System.nanoTime();
+                    JobResult channelResult = result.forChannel(c + 1);
+                    try {
+                        integrate(channelResult, new NumericalIntegration(dataset, c), rule, n, h, order);
+                    } catch (Exception exception) {
+                        channelResult.error = exception.getMessage();
+                    }
+                    channelResult.integrateMillis = (System.nanoTime() - channelStart) / 1e6;
+                    results.add(channelResult);
+                }
+                return results;
+            } catch (IOException exception) {
+                result.error = "Missing file.";
+            } catch (Exception exception) {
+                result.error = exception.getMessage();
+            }
+            if (result.loadMillis == 0)
+                result.loadMillis = (System.nanoTime() - start) / 1e6;
+            results.add(result);
+            return results;
+        }
+
+        // Integrates one channel with the rule of the job and records its area and evaluations in the result
+        private static void integrate(JobResult result, NumericalIntegration integrateObject, IntegrationRule rule,
+                                      int n, double h, int order) {
+            integrateObject.setCache(ResultCache.shared());
+            switch (rule) {
+                case TRAPEZOIDAL:
+                case SIMPSONS:
+                    result.area = integrateObject.integrate(n, h, rule == IntegrationRule.TRAPEZOIDAL);
+                    break;
+                case ADAPTIVE_SIMPSONS:
+                    result.area = integrateObject.integrateAdaptive(h);
+                    result.evaluations = integrateObject.getFunctionEvaluations();
+                    break;
+                case ROMBERG:
+                    result.area = integrateObject.integrateRomberg(n, h, ROMBERG_LEVELS);
+                    result.evaluations = integrateObject.getFunctionEvaluations();
+                    break;
+                case GAUSS_LEGENDRE:
+                    result.area = integrateObject.integrateGaussLegendre(n, order);
+                    result.evaluations = integrateObject.getFunctionEvaluations();
+                    break;
+                case GAUSS_KRONROD:
+                    result.area = integrateObject.integrateGaussKronrod(n);
+                    result.evaluations = integrateObject.getFunctionEvaluations();
+                    break;
+                case SAMPLE_TRAPEZOIDAL:
+                case SAMPLE_SIMPSONS:
+                    result.area = integrateObject.integrateSamples(rule == IntegrationRule.SAMPLE_TRAPEZOIDAL);
+                    break;
+            }
+        }
+
+        private static boolean isSampleRule(IntegrationRule rule) {
+            return rule == IntegrationRule.SAMPLE_TRAPEZOIDAL || rule == IntegrationRule.SAMPLE_SIMPSONS;
+        }
+
+        private static double parseH(String value) throws InvalidNOrHException {
+            double h;
+            try {
+                h = NumberLexer.parse(value);
+            } catch (NumberFormatException exception) {
+                throw new InvalidNOrHException();
+            }
+            if (!(h > 0))
+                throw new InvalidNOrHException();
+            return h;
+        }
+
+        private static double parseTolerance(String value) throws InvalidToleranceException {
+            double tolerance;
+            try {
+                tolerance = NumberLexer.parse(value);
+            } catch (NumberFormatException exception) {
+                throw new InvalidToleranceException();
+            }
+            if (!(tolerance > 0))
+                throw new InvalidToleranceException();
+            return tolerance;
+        }
+
+        private static int parseN(String value, boolean simpsonsRule) throws InvalidNOrHException, SimpsonsRuleException {
+            double n;
+            try {
+                n = NumberLexer.parse(value);
+            } catch (NumberFormatException exception) {
+                throw new InvalidNOrHException();
+            }
+            if (Math.floor(n) != n || n <= 0 || n > Integer.MAX_VALUE)
+                throw new InvalidNOrHException();
+            if (n % 2 == 1 && simpsonsRule)
+                throw new SimpsonsRuleException();
+            return (int) n;
+        }
+    }
+
+    // Outcome of a job for one channel of its data file, numbered from 1, or for the whole job when it failed before
+    // its data was loaded, with channel 0. The area is NaN and the error is set when the job failed
+    public static class JobResult {
+        private final int job;
+        private final String file;
+        private final int channel;
+        private final String rule;
+        private final String n;
+        private final String h;
+        private double area = Double.NaN;
+        private long evaluations;
+        private double loadMillis;
+        private double integrateMillis;
+        private String error;
+
+        JobResult(int job, String[] fields) {
+            this.job = job;
+            this.file = (fields.length > 0) ? fields[0].trim() : "";
+            this.channel = 0;
+            this.n = (fields.length > 1) ? fields[1].trim() : "";
+            this.h = (fields.length > 2) ? fields[2].trim() : "";
+            this.rule = (fields.length > 3) ? fields[3].trim() : "";
+        }
+
+        private JobResult(JobResult job, int channel) {
+            this.job = job.job;
+            this.file = job.file;
+            this.channel = channel;
+            this.n = job.n;
+            this.h = job.h;
+            this.rule = job.rule;
+            this.loadMillis = job.loadMillis;
+        }
+
+        // Result of the given channel of the same job, with its load time
+        JobResult forChannel(int channel) {
+            return new JobResult(this, channel);
+        }
+
+        public int getChannel() {
+            return channel;
+        }
+        public double getArea() {
+            return area;
+        }
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+// Areas of the Trapezoidal and Simpson's Rules computed from the same evaluations of the grid, with the Trapezoidal
+// Rule at half the resolution. Richardson extrapolation of the two trapezoids gives Simpson's Rule, and their
+// difference estimates the error of the Trapezoidal Rule
+public final class CombinedArea {
+    private final double trapezoidal;
+    private final double simpsons;
+    private final double halfTrapezoidal;
+
+    CombinedArea(double trapezoidal, double simpsons, double halfTrapezoidal){
+        this.trapezoidal = trapezoidal;
+        this.simpsons = simpsons;
+        this.halfTrapezoidal = halfTrapezoidal;
+    }
+
+    public double getTrapezoidal(){
+        return trapezoidal;
+    }
+    public double getSimpsons(){
+        return simpsons;
+    }
+    // Trapezoidal Rule with n/2 sub-intervals of width 2h, over the even grid points
+    public double getHalfTrapezoidal(){
+        return halfTrapezoidal;
+    }
+
+    // Estimate of the absolute error of the Trapezoidal area, (T(h) - T(2h))/3. It is the correction Simpson's Rule
+    // applies, so Simpson's area is normally much closer than this
+    public double getErrorEstimate(){
+        return Math.abs(trapezoidal - halfTrapezoidal) / 3;
+    }
+}
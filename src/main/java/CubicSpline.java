@@ -0,0 +1,77 @@
+// Cubic spline through the samples. The coefficients of every interval are solved once with a tridiagonal system in
+// O(N) and kept in flat arrays, so an evaluation is a Horner step on the interval's cubic
+//   S(x) = f(x(j)) + b(j)·t + c(j)·t² + d(j)·t³, t = x - x(j)
+// The natural spline has no curvature at the ends, the clamped one has the given slopes there. Points outside the
+// samples use the first or last cubic.
+public class CubicSpline implements Interpolator {
+    private final double[] xValues;
+    private final double[] fxValues;
+    private final double[] b;
+    private final double[] c;
+    private final double[] d;
+    private final int intervals;
+    private final String name;
+
+    private CubicSpline(double[] xValues, double[] fxValues, boolean clamped, double firstSlope, double lastSlope){
+        if (xValues.length < 3)
+            throw new IllegalArgumentException("At least 3 data points are needed.");
+        this.xValues = xValues;
+        this.fxValues = fxValues;
+        this.intervals = xValues.length - 1;
+        this.name = (clamped) ? "clamped-spline(" + firstSlope + "," + lastSlope + ")" : "natural-spline";
+
+        int n = intervals;
+        double[] h = new double[n], mu = new double[n + 1], z = new double[n + 1];
+        b = new double[n];
+        c = new double[n + 1];
+        d = new double[n];
+        for (int i = 0; i < n; i++)
+            h[i] = xValues[i+1] - xValues[i];
+
+        // Forward sweep of the tridiagonal system for c, the halved second derivatives at the samples
+        double l;
+        if (clamped){
+            l = 2 * h[0];
+            mu[0] = 0.5;
+            z[0] = (3 * (fxValues[1] - fxValues[0]) / h[0] - 3 * firstSlope) / l;
+        }
+        for (int i = 1; i < n; i++){
+            double alpha = 3 / h[i] * (fxValues[i+1] - fxValues[i]) - 3 / h[i-1] * (fxValues[i] - fxValues[i-1]);
+            l = 2 * (xValues[i+1] - xValues[i-1]) - h[i-1] * mu[i-1];
+            mu[i] = h[i] / l;
+            z[i] = (alpha - h[i-1] * z[i-1]) / l;
+        }
+        if (clamped){
+            l = h[n-1] * (2 - mu[n-1]);
+            z[n] = (3 * lastSlope - 3 * (fxValues[n] - fxValues[n-1]) / h[n-1] - h[n-1] * z[n-1]) / l;
+        }
+
+        // Back substitution
+        c[n] = z[n];
+        for (int j = n - 1; j >= 0; j--){
+            c[j] = z[j] - mu[j] * c[j+1];
+            b[j] = (fxValues[j+1] - fxValues[j]) / h[j] - h[j] * (c[j+1] + 2 * c[j]) / 3;
+            d[j] = (c[j+1] - c[j]) / (3 * h[j]);
+        }
+    }
+
+    public static CubicSpline natural(double[] xValues, double[] fxValues){
+        return new CubicSpline(xValues, fxValues, false, 0, 0);
+    }
+
+    public static CubicSpline clamped(double[] xValues, double[] fxValues, double firstSlope, double lastSlope){
+        return new CubicSpline(xValues, fxValues, true, firstSlope, lastSlope);
+    }
+
+    @Override
+    public double interpolate(int lowerBound, double x){
+        int j = Math.max(0, Math.min(lowerBound - 1, intervals - 1));
+        double t = x - xValues[j];
+        return fxValues[j] + t * (b[j] + t * (c[j] + t * d[j]));
+    }
+
+    @Override
+    public String getName(){
+        return name;
+    }
+}
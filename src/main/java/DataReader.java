@@ -0,0 +1,129 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Scanner;
+
+import org.apache.commons.lang3.StringUtils;
+
+// Reads data points from .txt and .csv files with one "x,f(x)" pair per row, or one "x,f1(x),...,fk(x)" row per x for
+// files with several channels. Single-channel files are parsed on all cores by ParallelDataReader, files with several
+// channels by readChannels. Binary data sets written by DatasetFile are mapped instead of parsed
+public final class DataReader {
+    private static final String ROW_FORMAT = "Each row must have an x value followed by one or more f(x) values, "
+            + "separated by commas, and every row must have as many values as the first.";
+
+    private DataReader(){
+    }
+
+    public static Dataset read(File file) throws FileNotFoundException, FileFormatException, IllegalFileContentsException, InsufficientDataException {
+        if (DatasetFile.isDatasetFile(file))
+            return DatasetFile.read(file);
+        if (channelCount(file) > 1)
+            return readChannels(file);
+        DatasetReadEvent event = new DatasetReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Dataset dataset = ParallelDataReader.read(file, Runtime.getRuntime().availableProcessors());
+
+        if (IntegrationMetrics.ENABLED)
+            IntegrationStatistics.get().addParse(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()){
+            event.path = file.getPath();
+            event.rows = dataset.size();
+            event.commit();
+        }
+        return dataset;
+    }
+
+    // Reads a file with any number of f(x) columns. Every row must have as many columns as the first one
+    public static Dataset readChannels(File file) throws FileNotFoundException, FileFormatException, IllegalFileContentsException, InsufficientDataException {
+        if (DatasetFile.isDatasetFile(file))
+            return DatasetFile.read(file);
+        checkExtension(file);
+        DatasetReadEvent event = new DatasetReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        DoubleList xValues = new DoubleList();
+        DoubleList[] channels = null;
+        long lineNumber = 0;
+
+        try (Scanner fileScanner = new Scanner(file)) {
+            while (fileScanner.hasNextLine()) {
+                String line = fileScanner.nextLine();
+                lineNumber++;
+                int columns = StringUtils.countMatches(line, ",");
+                if (channels == null) {
+                    if (columns == 0)
+                        throw new IllegalFileContentsException(ROW_FORMAT, lineNumber);
+                    channels = new DoubleList[columns];
+                    for (int i = 0; i < columns; i++)
+                        channels[i] = new DoubleList();
+                }
+                else if (columns != channels.length)
+                    throw new IllegalFileContentsException(ROW_FORMAT, lineNumber);
+
+                // Each column lies between two commas or the ends of the line
+                try {
+                    int from = 0, to = line.indexOf(',');
+                    xValues.add(NumberLexer.parse(line, from, to));
+                    for (DoubleList channel : channels) {
+                        from = to + 1;
+                        to = line.indexOf(',', from);
+                        if (to == -1)
+                            to = line.length();
+                        channel.add(NumberLexer.parse(line, from, to));
+                    }
+                } catch (NumberFormatException exception) {
+                    throw new IllegalFileContentsException(ROW_FORMAT, lineNumber);
+                }
+            }
+        }
+        // Data set must contain at least 3 data points
+        if (xValues.size() < 3)
+            throw new InsufficientDataException();
+
+        double[][] columns = new double[channels.length][];
+        for (int i = 0; i < columns.length; i++)
+            columns[i] = channels[i].toArray();
+        Dataset dataset = new Dataset(xValues.toArray(), columns);
+
+        if (IntegrationMetrics.ENABLED)
+            IntegrationStatistics.get().addParse(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()){
+            event.path = file.getPath();
+            event.rows = dataset.size();
+            event.commit();
+        }
+        return dataset;
+    }
+
+    // Number of f(x) columns of a data file, as given by its first row or by the header of a binary data set. Rows are
+    // not validated here, an empty file or a first row without a comma counts as 1 channel
+    public static int channelCount(File file) throws FileNotFoundException, FileFormatException, IllegalFileContentsException {
+        if (DatasetFile.isDatasetFile(file))
+            return DatasetFile.channelCount(file);
+        checkExtension(file);
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            return (line == null) ? 1 : Math.max(1, StringUtils.countMatches(line, ","));
+        } catch (FileNotFoundException exception) {
+            throw exception;
+        } catch (IOException exception) {
+            throw new IllegalFileContentsException();
+        }
+    }
+
+    // If the extension is not txt or csv, throw an error
+    public static void checkExtension(File file) throws FileFormatException {
+        String fileName = file.getName();
+        int periodIndex = fileName.lastIndexOf(".");
+        String ext = fileName.substring(periodIndex + 1);
+
+        if (!ext.equals("txt") && !ext.equals("csv"))
+            throw new FileFormatException();
+    }
+}
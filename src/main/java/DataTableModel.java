@@ -0,0 +1,151 @@
+import javax.swing.table.AbstractTableModel;
+
+// Table of data points backed by two growable double columns instead of string cells. Cells are parsed once, when
+// they are edited or pasted, so the data set is read straight from the columns. Empty cells hold NaN. The table only
+// asks for the visible rows, so any number of rows can be shown.
+public class DataTableModel extends AbstractTableModel {
+    private final DoubleList xValues = new DoubleList();
+    private final DoubleList fxValues = new DoubleList();
+
+    DataTableModel(int rows){
+        for (int i = 0; i < rows; i++){
+            xValues.add(Double.NaN);
+            fxValues.add(Double.NaN);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return xValues.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 2;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return (column == 0) ? "x" : "f(x)";
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return true;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        double value = column(column).get(row);
+        return (Double.isNaN(value)) ? "" : String.valueOf(value);
+    }
+
+    // Receives the Double of NumberCellEditor, or text that is parsed here. Unparsable text throws a
+    // NumberFormatException and leaves the cell unchanged
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        double number;
+        if (value instanceof Double)
+            number = (Double) value;
+        else {
+            String text = String.valueOf(value);
+            number = (text.isBlank()) ? Double.NaN : NumberLexer.parse(text);
+        }
+        column(column).set(row, number);
+        fireTableCellUpdated(row, column);
+    }
+
+    public void insertEmptyRow(int row) {
+        xValues.insert(row, Double.NaN);
+        fxValues.insert(row, Double.NaN);
+        fireTableRowsInserted(row, row);
+    }
+
+    public void removeRow(int row) {
+        xValues.remove(row);
+        fxValues.remove(row);
+        fireTableRowsDeleted(row, row);
+    }
+
+    // Empties every cell and keeps the number of rows
+    public void clear() {
+        for (int i = 0; i < xValues.size(); i++){
+            xValues.set(i, Double.NaN);
+            fxValues.set(i, Double.NaN);
+        }
+        fireTableDataChanged();
+    }
+
+    // Parses rows of "x,f(x)" or tab separated "x f(x)", one per line, as copied from a text file or a spreadsheet,
+    // and writes them from the given row down, adding rows as needed. Nothing is changed if a line cannot be parsed
+    public void paste(String text, int firstRow) throws IllegalTableContentsException {
+        DoubleList pastedX = new DoubleList(), pastedFx = new DoubleList();
+        int start = 0, length = text.length();
+        while (start < length){
+            int end = start;
+            while (end < length && text.charAt(end) != '\n' && text.charAt(end) != '\r')
+                end++;
+
+            if (!isBlank(text, start, end)){
+                int separator = start;
+                while (separator < end && text.charAt(separator) != ',' && text.charAt(separator) != '\t')
+                    separator++;
+                try {
+                    if (separator == end)
+                        throw new NumberFormatException();
+                    pastedX.add(NumberLexer.parse(text, start, separator));
+                    pastedFx.add(NumberLexer.parse(text, separator + 1, end));
+                } catch (NumberFormatException exception) {
+                    throw new IllegalTableContentsException();
+                }
+            }
+            start = end + 1;
+        }
+
+        int oldRowCount = getRowCount();
+        for (int i = 0; i < pastedX.size(); i++){
+            int row = firstRow + i;
+            if (row < xValues.size()){
+                xValues.set(row, pastedX.get(i));
+                fxValues.set(row, pastedFx.get(i));
+            }
+            else{
+                xValues.add(pastedX.get(i));
+                fxValues.add(pastedFx.get(i));
+            }
+        }
+        if (firstRow < oldRowCount && pastedX.size() > 0)
+            fireTableRowsUpdated(firstRow, Math.min(firstRow + pastedX.size(), oldRowCount) - 1);
+        if (getRowCount() > oldRowCount)
+            fireTableRowsInserted(oldRowCount, getRowCount() - 1);
+    }
+
+    // Copies the columns into a data set. Every cell must hold a number. The copy is counted as parse time, like the
+    // loading of a file
+    public Dataset toDataset() throws IllegalTableContentsException, InsufficientDataException {
+        long start = System.nanoTime();
+        double[] x = xValues.toArray(), fx = fxValues.toArray();
+        for (int i = 0; i < x.length; i++){
+            if (Double.isNaN(x[i]) || Double.isNaN(fx[i]))
+                throw new IllegalTableContentsException();
+        }
+        // Data set must contain at least 3 data points
+        if (x.length < 3)
+            throw new InsufficientDataException();
+        if (IntegrationMetrics.ENABLED)
+            IntegrationStatistics.get().addParse(System.nanoTime() - start);
+        return new Dataset(x, fx);
+    }
+
+    private static boolean isBlank(String text, int from, int to) {
+        for (int i = from; i < to; i++){
+            if (text.charAt(i) > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    private DoubleList column(int column) {
+        return (column == 0) ? xValues : fxValues;
+    }
+}
@@ -0,0 +1,46 @@
+// Data points (x, f(x)) loaded from the table or a file. The x values are expected in ascending order. A data set may
+// hold several f(x) channels sampled at the same x values; each channel is stored as its own array
+public class Dataset {
+    private final double[] xValues;
+    private final double[][] channels;
+    private final Boolean uniform;
+
+    Dataset(double[] xValues, double[] fxValues){
+        this(xValues, new double[][]{fxValues});
+    }
+
+    Dataset(double[] xValues, double[][] channels){
+        this(xValues, channels, null);
+    }
+
+    // Data set whose spacing is already known, such as one reloaded from a binary data set
+    Dataset(double[] xValues, double[][] channels, Boolean uniform){
+        this.xValues = xValues;
+        this.channels = channels;
+        this.uniform = uniform;
+    }
+
+    public double[] getxValues() {
+        return xValues;
+    }
+    // Values of the first channel
+    public double[] getfxValues() {
+        return channels[0];
+    }
+    public double[] getChannel(int channel) {
+        return channels[channel];
+    }
+    public double[][] getChannels() {
+        return channels;
+    }
+    public int getChannelCount() {
+        return channels.length;
+    }
+    // Whether the x values are uniformly spaced, or null if that has not been checked
+    public Boolean getUniform() {
+        return uniform;
+    }
+    public int size() {
+        return xValues.length;
+    }
+}
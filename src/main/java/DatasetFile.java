@@ -0,0 +1,226 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+// Binary columnar format for data sets, reloaded by memory-mapping the file and copying the columns in bulk instead of
+// parsing text. Layout, little-endian:
+//
+//   0  int    magic "NIDS"
+//   4  int    version
+//   8  int    flags (bit 0: the x values are uniformly spaced, so that loading does not check the spacing again)
+//  12  int    number of f(x) channels
+//  16  long   number of data points
+//  24  double minimum x
+//  32  double maximum x
+//  40  double minimum f(x) over every channel
+//  48  double maximum f(x) over every channel
+//  56  long   checksum of the columns
+//  64         x column, then each f(x) column, one double per data point
+//
+// Columns are mapped in windows of at most WINDOW bytes, so files are not limited to the 2 GB of a single mapping.
+// The ranges are checked against the columns when reading. Version 1 files, which have zeros in their place, are
+// still read without that check.
+//
+// Usage: DatasetFile <input.csv | input.txt> <output.dset> converts a text data file.
+public final class DatasetFile {
+    public static final String EXTENSION = "dset";
+
+    private static final int MAGIC = 0x5344494E;
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_RANGES = 1;
+    private static final int UNIFORM = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final long WINDOW = 1L << 30;
+
+    private DatasetFile(){
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: DatasetFile <input.csv | input.txt> <output." + EXTENSION + ">");
+            System.exit(2);
+        }
+        Dataset dataset = DataReader.readChannels(new File(args[0]));
+        write(dataset, new File(args[1]));
+        System.err.printf("%d data points, %d channel(s) written to %s%n", dataset.size(), dataset.getChannelCount(),
+                args[1]);
+    }
+
+    public static boolean isDatasetFile(File file){
+        return file.getName().endsWith("." + EXTENSION);
+    }
+
+    public static void write(Dataset dataset, File file) throws IOException {
+        double[] x = dataset.getxValues();
+        double[][] channels = dataset.getChannels();
+        Boolean uniform = dataset.getUniform();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putInt(((uniform == null) ? new IntervalLocator(x).isUniform() : uniform) ? UNIFORM : 0);
+        header.putInt(channels.length);
+        header.putLong(x.length);
+        header.putDouble(min(x)).putDouble(max(x));
+        header.putDouble(min(channels)).putDouble(max(channels));
+        header.putLong(56, checksum(x, channels));
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            buffer.put(header.array());
+            buffer.force();
+            putColumn(channel, HEADER_SIZE, x);
+            for (int c = 0; c < channels.length; c++)
+                putColumn(channel, columnOffset(c + 1, x.length), channels[c]);
+        }
+    }
+
+    // Number of f(x) channels given by the header. The header is only checked for its magic number and version
+    static int channelCount(File file) throws FileNotFoundException, IllegalFileContentsException {
+        if (!file.isFile())
+            throw new FileNotFoundException(file.getPath());
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            if (channel.size() < HEADER_SIZE)
+                throw new IllegalFileContentsException();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || !isKnownVersion(header.getInt(4)) || header.getInt(12) < 1)
+                throw new IllegalFileContentsException();
+            return header.getInt(12);
+        } catch (IOException exception) {
+            throw new IllegalFileContentsException();
+        }
+    }
+
+    // Maps the file and copies its columns. Files with a wrong header, length, range or checksum are rejected
+    public static Dataset read(File file) throws FileNotFoundException, IllegalFileContentsException, InsufficientDataException {
+        if (!file.isFile())
+            throw new FileNotFoundException(file.getPath());
+        DatasetReadEvent event = new DatasetReadEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        double[] x;
+        double[][] channels;
+        boolean uniform;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            long length = channel.size();
+            if (length < HEADER_SIZE)
+                throw new IllegalFileContentsException();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            // Columns are read into arrays, which hold fewer than Integer.MAX_VALUE values
+            int magic = header.getInt(0), version = header.getInt(4), channelCount = header.getInt(12);
+            long size = header.getLong(16);
+            boolean ranges = version == VERSION;
+            double minX = header.getDouble(24), maxX = header.getDouble(32);
+            double minFx = header.getDouble(40), maxFx = header.getDouble(48);
+            if (magic != MAGIC || !isKnownVersion(version) || channelCount < 1 || size < 0 || size >= Integer.MAX_VALUE
+                    || length != columnOffset(channelCount + 1, size) || (ranges && !(minX <= maxX && minFx <= maxFx)))
+                throw new IllegalFileContentsException();
+            // Data set must contain at least 3 data points
+            if (size < 3)
+                throw new InsufficientDataException();
+
+            x = new double[(int) size];
+            channels = new double[channelCount][(int) size];
+            getColumn(channel, HEADER_SIZE, x);
+            for (int c = 0; c < channelCount; c++)
+                getColumn(channel, columnOffset(c + 1, size), channels[c]);
+            if (header.getLong(56) != checksum(x, channels))
+                throw new IllegalFileContentsException();
+            if (ranges && (min(x) != minX || max(x) != maxX || min(channels) != minFx || max(channels) != maxFx))
+                throw new IllegalFileContentsException();
+            uniform = (header.getInt(8) & UNIFORM) != 0;
+        } catch (IOException exception) {
+            throw new IllegalFileContentsException();
+        }
+
+        if (IntegrationMetrics.ENABLED)
+            IntegrationStatistics.get().addParse(System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()){
+            event.path = file.getPath();
+            event.rows = x.length;
+            event.commit();
+        }
+        return new Dataset(x, channels, uniform);
+    }
+
+    private static boolean isKnownVersion(int version){
+        return version == VERSION || version == VERSION_WITHOUT_RANGES;
+    }
+
+    // Offset of the column, the x column being column 0
+    private static long columnOffset(int column, long size){
+        return HEADER_SIZE + column * size * Double.BYTES;
+    }
+
+    // Writes the column at the offset, one window at a time
+    private static void putColumn(FileChannel channel, long offset, double[] column) throws IOException {
+        long windowValues = WINDOW / Double.BYTES;
+        for (long from = 0; from < column.length; from += windowValues){
+            int length = (int) Math.min(windowValues, column.length - from);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset + from * Double.BYTES,
+                    (long) length * Double.BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().put(column, (int) from, length);
+            buffer.force();
+        }
+    }
+
+    // Reads the column at the offset, one window at a time
+    private static void getColumn(FileChannel channel, long offset, double[] column) throws IOException {
+        long windowValues = WINDOW / Double.BYTES;
+        for (long from = 0; from < column.length; from += windowValues){
+            int length = (int) Math.min(windowValues, column.length - from);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset + from * Double.BYTES,
+                    (long) length * Double.BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(column, (int) from, length);
+        }
+    }
+
+    private static double min(double[] values){
+        double min = Double.POSITIVE_INFINITY;
+        for (double value : values)
+            min = Math.min(min, value);
+        return min;
+    }
+
+    private static double max(double[] values){
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values)
+            max = Math.max(max, value);
+        return max;
+    }
+
+    private static double min(double[][] columns){
+        double min = Double.POSITIVE_INFINITY;
+        for (double[] column : columns)
+            min = Math.min(min, min(column));
+        return min;
+    }
+
+    private static double max(double[][] columns){
+        double max = Double.NEGATIVE_INFINITY;
+        for (double[] column : columns)
+            max = Math.max(max, max(column));
+        return max;
+    }
+
+    // Fingerprint of the x column with the first channel, extended with every other channel
+    private static long checksum(double[] x, double[][] channels){
+        long checksum = ResultCache.fingerprint(x, channels[0]);
+        for (int c = 1; c < channels.length; c++)
+            checksum = checksum * 0x9E3779B97F4A7C15L ^ ResultCache.fingerprint(x, channels[c]);
+        return checksum;
+    }
+}
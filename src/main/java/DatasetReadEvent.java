@@ -0,0 +1,17 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Flight Recorder event of the parsing of a data file by DataReader, or of the loading of a binary data set
+@Name("NumericalIntegration.DatasetRead")
+@Label("Dataset Read")
+@Category("Numerical Integration")
+@Description("Parsing of a .txt or .csv data file, or loading of a .dset data set")
+class DatasetReadEvent extends jdk.jfr.Event {
+    @Label("Path")
+    String path;
+
+    @Label("Rows")
+    int rows;
+}
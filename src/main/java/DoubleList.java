@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+// Growable array of primitive doubles, used to collect data points without boxing them
+public class DoubleList {
+    private double[] values;
+    private int size;
+
+    public DoubleList(){
+        this(16);
+    }
+
+    public DoubleList(int capacity){
+        values = new double[Math.max(capacity, 1)];
+    }
+
+    public void add(double value){
+        if (size == values.length)
+            values = Arrays.copyOf(values, values.length * 2);
+        values[size++] = value;
+    }
+
+    public double get(int index){
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return values[index];
+    }
+
+    public void set(int index, double value){
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        values[index] = value;
+    }
+
+    // Inserts the value before the one at the index, shifting the rest up
+    public void insert(int index, double value){
+        if (index > size)
+            throw new IndexOutOfBoundsException(index);
+        if (size == values.length)
+            values = Arrays.copyOf(values, values.length * 2);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+    }
+
+    public void remove(int index){
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public void clear(){
+        size = 0;
+    }
+
+    // Copies the values into the array from the given offset
+    public void copyTo(double[] target, int offset){
+        System.arraycopy(values, 0, target, offset, size);
+    }
+
+    // Copy of the values, sized to the number of values
+    public double[] toArray(){
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -1,5 +1,5 @@
 public class FileFormatException extends Exception{
     public FileFormatException(){
-        super("Invalid formatting in file.\n- File must have a .txt or .csv file");
+        super("Invalid formatting in file.\n- File must have a .txt, .csv or .dset file");
     }
 }
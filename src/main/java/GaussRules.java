@@ -0,0 +1,86 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+// Nodes and weights of the Gauss rules on [-1, 1], nodes in ascending order. Gauss-Legendre tables are computed once
+// per order and cached, the Gauss-Kronrod 7-15 table is the one from QUADPACK. The arrays are shared and must not be
+// modified.
+final class GaussRules {
+    // Largest Gauss-Legendre order, beyond which the Newton iteration for the nodes loses accuracy
+    static final int MAX_ORDER = 100;
+
+    // Kronrod nodes in [0, 1) from the largest down to 0. The odd ones are the nodes of the 7-point Gauss rule
+    private static final double[] KRONROD_POSITIVE_NODES = {
+            0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+            0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+            0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+            0.207784955007898467600689403773245, 0.000000000000000000000000000000000
+    };
+    private static final double[] KRONROD_POSITIVE_WEIGHTS = {
+            0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+            0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+            0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+            0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+    private static final double[] GAUSS_7_POSITIVE_WEIGHTS = {
+            0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+            0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
+    // Nodes of the 15-point Kronrod rule, their Kronrod weights, and their 7-point Gauss weights (0 for the nodes
+    // Gauss does not use)
+    static final double[] KRONROD_NODES = new double[15];
+    static final double[] KRONROD_WEIGHTS = new double[15];
+    static final double[] GAUSS_7_WEIGHTS = new double[15];
+
+    private static final ConcurrentHashMap<Integer, double[][]> LEGENDRE_TABLES = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i < 15; i++){
+            int j = (i <= 7) ? i : 14 - i;
+            KRONROD_NODES[i] = (i < 7) ? -KRONROD_POSITIVE_NODES[j] : KRONROD_POSITIVE_NODES[j];
+            KRONROD_WEIGHTS[i] = KRONROD_POSITIVE_WEIGHTS[j];
+            GAUSS_7_WEIGHTS[i] = (j % 2 == 1) ? GAUSS_7_POSITIVE_WEIGHTS[(j - 1) / 2] : 0;
+        }
+    }
+
+    private GaussRules(){
+    }
+
+    // Returns {nodes, weights} of the Gauss-Legendre rule of the given order
+    static double[][] legendre(int order){
+        if (order < 1 || order > MAX_ORDER)
+            throw new IllegalArgumentException("Order must be between 1 and " + MAX_ORDER + ".");
+        return LEGENDRE_TABLES.computeIfAbsent(order, GaussRules::computeLegendre);
+    }
+
+    // The nodes are the roots of the Legendre polynomial P_order, found by Newton's method from the approximation
+    // cos(π(i - 1/4)/(order + 1/2)), and the rule is symmetric, so only half of them are computed
+    private static double[][] computeLegendre(int order){
+        double[] nodes = new double[order], weights = new double[order];
+        for (int i = 1; i <= (order + 1) / 2; i++){
+            double x = Math.cos(Math.PI * (i - 0.25) / (order + 0.5)), derivative;
+            int iterations = 0;
+            do {
+                // P_order(x) and P_order-1(x) by the three-term recurrence
+                double previous = 1, current = x;
+                for (int k = 2; k <= order; k++){
+                    double next = ((2*k - 1) * x * current - (k - 1) * previous) / k;
+                    previous = current;
+                    current = next;
+                }
+                derivative = order * (x * current - previous) / (x * x - 1);
+                double step = current / derivative;
+                x -= step;
+                if (Math.abs(step) <= 1e-16)
+                    break;
+            } while (++iterations < 100);
+
+            // Roots are found from the largest down, store them from both ends
+            nodes[order - i] = x;
+            nodes[i - 1] = -x;
+            weights[order - i] = weights[i - 1] = 2 / ((1 - x * x) * derivative * derivative);
+        }
+        if (order % 2 == 1)
+            nodes[order / 2] = 0;
+        return new double[][]{nodes, weights};
+    }
+}
@@ -0,0 +1,41 @@
+// Walks the evaluation grid and the sample arrays together. Queries must be non-decreasing, so each lookup resumes
+// from the interval found by the previous one and a full pass over n grid points and N samples costs O(n + N).
+public class GridCursor {
+    private final double[] xValues;
+    private final double[] fxValues;
+    private final IntervalLocator locator;
+    private final IntegrationMetrics metrics;
+    private final Interpolator interpolator;
+    private final int size;
+    private int index;
+
+    GridCursor(double[] xValues, double[] fxValues, IntervalLocator locator, IntegrationMetrics metrics,
+               Interpolator interpolator){
+        this.xValues = xValues;
+        this.fxValues = fxValues;
+        this.locator = locator;
+        this.metrics = metrics;
+        this.interpolator = interpolator;
+        this.size = xValues.length;
+    }
+
+    // Returns the fx value of x, which must not be smaller than the previous query. The interpolator is used when x
+    // is not one of the samples
+    public double valueAt(double x){
+        index = locator.lowerBound(x, index);
+
+        if (index < size && xValues[index] == x){
+            if (IntegrationMetrics.ENABLED)
+                metrics.exactHit();
+            return fxValues[index];
+        }
+        if (IntegrationMetrics.ENABLED)
+            metrics.interpolation();
+        return interpolator.interpolate(index, x);
+    }
+
+    // Moves the cursor back to the first sample
+    public void reset(){
+        index = 0;
+    }
+}
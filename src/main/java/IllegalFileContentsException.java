@@ -1,5 +1,27 @@
 public class IllegalFileContentsException extends Exception {
+    private final long line;
+
     public IllegalFileContentsException(){
         super("File must contain parsable, real numbers. \nEach row must have 2 numbers separated by 1 comma.");
+        this.line = 0;
+    }
+
+    // The line is counted from 1
+    public IllegalFileContentsException(long line){
+        super("File must contain parsable, real numbers. \nEach row must have 2 numbers separated by 1 comma."
+                + "\nLine " + line + " is invalid.");
+        this.line = line;
+    }
+
+    // Files whose rows are not "x,f(x)" pairs describe their own row format. The line is 0 if it is not known
+    public IllegalFileContentsException(String format, long line){
+        super("File must contain parsable, real numbers. \n" + format
+                + ((line > 0) ? "\nLine " + line + " is invalid." : ""));
+        this.line = line;
+    }
+
+    // Line of the invalid row, or 0 if it is not known
+    public long getLine(){
+        return line;
     }
 }
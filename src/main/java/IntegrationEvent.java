@@ -0,0 +1,38 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Flight Recorder event of one run of a NumericalIntegration. It is recorded with jcmd JFR.start or
+// -XX:StartFlightRecording; the counters are 0 unless IntegrationMetrics.ENABLED is set
+@Name("NumericalIntegration.Integration")
+@Label("Integration")
+@Category("Numerical Integration")
+@Description("One run of an integration rule over a data set")
+class IntegrationEvent extends jdk.jfr.Event {
+    @Label("Rule")
+    String rule;
+
+    @Label("Samples")
+    int samples;
+
+    @Label("Sub-intervals")
+    long subIntervals;
+
+    @Label("Area")
+    double area;
+
+    @Label("Exact Hits")
+    long exactHits;
+
+    @Label("Interpolations")
+    long interpolations;
+
+    @Label("Search Steps")
+    long searchSteps;
+
+    @Label("Graph Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long graphTime;
+}
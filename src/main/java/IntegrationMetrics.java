@@ -0,0 +1,63 @@
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and timings of the last run of a NumericalIntegration. The counters are collected only when the JVM is
+// started with -Dintegration.metrics=true; the flag is a constant, so with it off the JIT removes the counting code
+// from the evaluation loops. The timings are always taken, once per run.
+public class IntegrationMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("integration.metrics");
+
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder interpolations = new LongAdder();
+    private final LongAdder searchSteps = new LongAdder();
+    private volatile long start;
+    private volatile long integrateNanos;
+    private volatile long graphNanos;
+
+    void exactHit(){
+        exactHits.increment();
+    }
+    void interpolation(){
+        interpolations.increment();
+    }
+    void searchSteps(int steps){
+        searchSteps.add(steps);
+    }
+
+    // Clears the metrics and starts timing a run
+    void begin(){
+        exactHits.reset();
+        interpolations.reset();
+        searchSteps.reset();
+        graphNanos = 0;
+        integrateNanos = 0;
+        start = System.nanoTime();
+    }
+
+    // Stops timing the run. The time spent on the graph is not counted as integration time
+    void end(){
+        integrateNanos = System.nanoTime() - start - graphNanos;
+    }
+
+    void addGraphNanos(long nanos){
+        graphNanos += nanos;
+    }
+
+    // Evaluations that fell on a sample
+    public long getExactHits(){
+        return exactHits.sum();
+    }
+    // Evaluations that needed the Lagrange interpolation
+    public long getInterpolations(){
+        return interpolations.sum();
+    }
+    // Samples compared by the interval searches
+    public long getSearchSteps(){
+        return searchSteps.sum();
+    }
+    public long getIntegrateNanos(){
+        return integrateNanos;
+    }
+    public long getGraphNanos(){
+        return graphNanos;
+    }
+}
@@ -0,0 +1,19 @@
+// Receives the progress of a long integration and lets its caller stop it. The integration checks it every few
+// thousand evaluations and throws a java.util.concurrent.CancellationException once it has been cancelled
+public interface IntegrationProgress {
+    IntegrationProgress NONE = new IntegrationProgress() {
+        @Override
+        public void update(double fraction) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
+
+    // Called with the fraction of the work done, between 0 and 1. May be called from several threads
+    void update(double fraction);
+
+    boolean isCancelled();
+}
@@ -0,0 +1,30 @@
+// Integration methods that can be requested by name, e.g. in the jobs of BatchRunner
+public enum IntegrationRule {
+    TRAPEZOIDAL("trapezoidal"),
+    SIMPSONS("simpsons"),
+    ADAPTIVE_SIMPSONS("adaptive"),
+    ROMBERG("romberg"),
+    GAUSS_LEGENDRE("gauss"),
+    GAUSS_KRONROD("kronrod"),
+    SAMPLE_TRAPEZOIDAL("sample-trapezoidal"),
+    SAMPLE_SIMPSONS("sample-simpsons");
+
+    private final String name;
+
+    IntegrationRule(String name){
+        this.name = name;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    // Returns the rule with the given name, ignoring case, or null if there is none
+    public static IntegrationRule fromName(String name){
+        for (IntegrationRule rule : values()){
+            if (rule.name.equalsIgnoreCase(name.trim()))
+                return rule;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Accumulates the metrics of every run and publishes them as the JMX MBean NumericalIntegration:type=Statistics. It is
+// only registered, and only fed, when IntegrationMetrics.ENABLED is set
+public class IntegrationStatistics implements IntegrationStatisticsMBean {
+    private static final IntegrationStatistics INSTANCE = register(new IntegrationStatistics());
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder interpolations = new LongAdder();
+    private final LongAdder searchSteps = new LongAdder();
+    private final LongAdder filesRead = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder integrateNanos = new LongAdder();
+    private final LongAdder graphNanos = new LongAdder();
+
+    private IntegrationStatistics(){
+    }
+
+    public static IntegrationStatistics get(){
+        return INSTANCE;
+    }
+
+    void add(IntegrationMetrics metrics){
+        runs.increment();
+        exactHits.add(metrics.getExactHits());
+        interpolations.add(metrics.getInterpolations());
+        searchSteps.add(metrics.getSearchSteps());
+        integrateNanos.add(metrics.getIntegrateNanos());
+        graphNanos.add(metrics.getGraphNanos());
+    }
+
+    // Time spent building a chart from the plot points of a run
+    void addGraph(long nanos){
+        graphNanos.add(nanos);
+    }
+
+    // Time spent loading a data set, from any file format or from the table
+    void addParse(long nanos){
+        filesRead.increment();
+        parseNanos.add(nanos);
+    }
+
+    @Override
+    public long getRuns(){
+        return runs.sum();
+    }
+    @Override
+    public long getExactHits(){
+        return exactHits.sum();
+    }
+    @Override
+    public long getInterpolations(){
+        return interpolations.sum();
+    }
+    @Override
+    public long getSearchSteps(){
+        return searchSteps.sum();
+    }
+    @Override
+    public long getFilesRead(){
+        return filesRead.sum();
+    }
+    @Override
+    public double getParseMillis(){
+        return parseNanos.sum() / 1e6;
+    }
+    @Override
+    public double getIntegrateMillis(){
+        return integrateNanos.sum() / 1e6;
+    }
+    @Override
+    public double getGraphMillis(){
+        return graphNanos.sum() / 1e6;
+    }
+
+    @Override
+    public void reset(){
+        for (LongAdder adder : new LongAdder[]{runs, exactHits, interpolations, searchSteps, filesRead, parseNanos,
+                integrateNanos, graphNanos})
+            adder.reset();
+    }
+
+    // A failed registration only hides the MBean, the totals are still kept
+    private static IntegrationStatistics register(IntegrationStatistics statistics){
+        if (IntegrationMetrics.ENABLED){
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(statistics,
+                        new ObjectName("NumericalIntegration:type=Statistics"));
+            } catch (JMException exception) {
+                System.err.println("Could not register the integration statistics: " + exception.getMessage());
+            }
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,12 @@
+// Totals of all the runs since the JVM started or the last reset, as shown by JConsole or any JMX client
+public interface IntegrationStatisticsMBean {
+    long getRuns();
+    long getExactHits();
+    long getInterpolations();
+    long getSearchSteps();
+    long getFilesRead();
+    double getParseMillis();
+    double getIntegrateMillis();
+    double getGraphMillis();
+    void reset();
+}
@@ -0,0 +1,8 @@
+// Interpolant evaluated between the samples. The interval search is done by the caller, which passes the index of the
+// first sample not smaller than x; samples hit exactly are also handled by the caller
+public interface Interpolator {
+    double interpolate(int lowerBound, double x);
+
+    // Identifies the interpolant in cache keys, e.g. "lagrange" or "natural-spline"
+    String getName();
+}
@@ -0,0 +1,135 @@
+// Finds where a point falls among the sorted x values without allocating. Uniformly spaced samples are located in
+// O(1) by computing the index directly, arbitrary queries use a binary search and sequential queries can resume
+// from a hint (the result of the previous lookup) with an exponential search.
+public class IntervalLocator {
+    // Relative difference allowed between consecutive steps for the samples to be treated as uniform
+    private static final double UNIFORM_TOLERANCE = 1e-9;
+
+    private final double[] xValues;
+    private final int size;
+    private final boolean uniform;
+    private final double first;
+    private final double step;
+    private final IntegrationMetrics metrics;
+
+    IntervalLocator(double[] xValues){
+        this(xValues, new IntegrationMetrics());
+    }
+
+    // Search steps are counted in the metrics when they are enabled
+    IntervalLocator(double[] xValues, IntegrationMetrics metrics){
+        this(xValues, metrics, isUniform(xValues, step(xValues)));
+    }
+
+    // The spacing is given by the caller, who already knows it, instead of being checked. A wrong flag only slows the
+    // lookups down, since the uniform lookup corrects its guess against the samples
+    IntervalLocator(double[] xValues, IntegrationMetrics metrics, boolean uniform){
+        this.xValues = xValues;
+        this.metrics = metrics;
+        this.size = xValues.length;
+        this.first = (size > 0) ? xValues[0] : 0;
+        this.step = step(xValues);
+        this.uniform = uniform && size >= 3 && step > 0 && !Double.isInfinite(step);
+    }
+
+    // Returns the index of the first sample not smaller than x, or the number of samples if x is past the last one
+    public int lowerBound(double x){
+        if (uniform)
+            return uniformLowerBound(x);
+        return binarySearch(x, 0, size);
+    }
+
+    // Same as lowerBound(x), but starts searching from the index returned by a previous lookup. When the queries
+    // move forward in small steps, the answer is found in a few comparisons
+    public int lowerBound(double x, int hint){
+        if (uniform)
+            return uniformLowerBound(x);
+        if (hint < 0)
+            hint = 0;
+        if (hint > size)
+            hint = size;
+
+        int bound = 1, low, high, steps = 0;
+        if (hint == size || xValues[hint] >= x){
+            // Answer is at or before the hint, search backward
+            high = hint;
+            low = hint - 1;
+            while (low >= 0 && xValues[low] >= x){
+                high = low;
+                low = hint - (bound <<= 1);
+                steps++;
+            }
+            low = Math.max(low + 1, 0);
+        }
+        else{
+            // Answer is after the hint, search forward
+            low = hint + 1;
+            high = hint + 1;
+            while (high < size && xValues[high] < x){
+                low = high + 1;
+                high = hint + (bound <<= 1);
+                steps++;
+            }
+            high = Math.min(high, size);
+        }
+        if (IntegrationMetrics.ENABLED)
+            metrics.searchSteps(steps);
+        return binarySearch(x, low, high);
+    }
+
+    public boolean isUniform(){
+        return uniform;
+    }
+
+    // Index is computed directly from the step, then corrected by the rounding error of the division
+    private int uniformLowerBound(double x){
+        double position = Math.ceil((x - first) / step);
+        int index = (position <= 0) ? 0 : (position >= size) ? size : (int) position, steps = 1;
+
+        while (index > 0 && xValues[index-1] >= x){
+            index--;
+            steps++;
+        }
+        while (index < size && xValues[index] < x){
+            index++;
+            steps++;
+        }
+        if (IntegrationMetrics.ENABLED)
+            metrics.searchSteps(steps);
+        return index;
+    }
+
+    // Lower bound of x within [from, to)
+    private int binarySearch(double x, int from, int to){
+        int low = from, high = to, middle, steps = 0;
+        while (low < high){
+            middle = (low + high) >>> 1;
+            if (xValues[middle] < x)
+                low = middle + 1;
+            else
+                high = middle;
+            steps++;
+        }
+        if (IntegrationMetrics.ENABLED)
+            metrics.searchSteps(steps);
+        return low;
+    }
+
+    // Average step between the samples
+    private static double step(double[] xValues){
+        int size = xValues.length;
+        return (size > 1) ? (xValues[size-1] - xValues[0]) / (size - 1) : 0;
+    }
+
+    private static boolean isUniform(double[] xValues, double step){
+        if (xValues.length < 3 || !(step > 0) || Double.isInfinite(step))
+            return false;
+
+        double tolerance = step * UNIFORM_TOLERANCE;
+        for (int i = 1; i < xValues.length; i++){
+            if (Math.abs(xValues[i] - xValues[i-1] - step) > tolerance)
+                return false;
+        }
+        return true;
+    }
+}
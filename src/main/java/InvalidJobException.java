@@ -0,0 +1,18 @@
+public class InvalidJobException extends Exception {
+    public InvalidJobException(){
+        super("Invalid job.\n- Each job must have 4 fields separated by commas: file, n, h, rule\n- Rule must be "
+                + ruleNames());
+    }
+
+    // "a, b or c" from the names of every rule
+    private static String ruleNames(){
+        IntegrationRule[] rules = IntegrationRule.values();
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < rules.length; i++){
+            if (i > 0)
+                names.append((i == rules.length - 1) ? " or " : ", ");
+            names.append(rules[i].getName());
+        }
+        return names.toString();
+    }
+}
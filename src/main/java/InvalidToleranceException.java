@@ -0,0 +1,5 @@
+public class InvalidToleranceException extends Exception {
+    public InvalidToleranceException(){
+        super("Invalid tolerance.\n- Tolerance must be an integer, decimal, or a fraction\n- Tolerance must be positive");
+    }
+}
@@ -0,0 +1,39 @@
+// Quadratic Lagrange interpolation over the 3 samples surrounding x, the interpolant used by default
+public class LagrangeInterpolator implements LocalInterpolator {
+    private final double[] xValues;
+    private final double[] fxValues;
+    private final int size;
+
+    LagrangeInterpolator(double[] xValues, double[] fxValues){
+        this.xValues = xValues;
+        this.fxValues = fxValues;
+        this.size = xValues.length;
+    }
+
+    @Override
+    public double interpolate(int lowerBound, double x){
+        return NumericalIntegration.lagrangeInterpolation(xValues, fxValues,
+                NumericalIntegration.firstIndexOfSubset(lowerBound, size), x);
+    }
+
+    @Override
+    public int span(){
+        return 3;
+    }
+
+    // Basis polynomials of the 3 samples, multiplied in the order lagrangeInterpolation uses
+    @Override
+    public int weights(int lowerBound, double x, double[] weights){
+        int first = NumericalIntegration.firstIndexOfSubset(lowerBound, size);
+        double x0 = xValues[first], x1 = xValues[first+1], x2 = xValues[first+2];
+        weights[0] = ((x - x1)/(x0 - x1)) * ((x - x2)/(x0 - x2));
+        weights[1] = ((x - x0)/(x1 - x0)) * ((x - x2)/(x1 - x2));
+        weights[2] = ((x - x0)/(x2 - x0)) * ((x - x1)/(x2 - x1));
+        return first;
+    }
+
+    @Override
+    public String getName(){
+        return "lagrange";
+    }
+}
@@ -0,0 +1,43 @@
+// Linear interpolation between the 2 samples surrounding x. Points outside the data set use the first or last interval
+public class LinearInterpolator implements LocalInterpolator {
+    private final double[] xValues;
+    private final double[] fxValues;
+    private final int size;
+
+    LinearInterpolator(double[] xValues, double[] fxValues){
+        this.xValues = xValues;
+        this.fxValues = fxValues;
+        this.size = xValues.length;
+    }
+
+    // Weighted by the position of x between the 2 samples, the same weights as weights gives
+    @Override
+    public double interpolate(int lowerBound, double x){
+        int first = firstIndex(lowerBound);
+        double t = (x - xValues[first]) / (xValues[first+1] - xValues[first]);
+        return (1 - t) * fxValues[first] + t * fxValues[first+1];
+    }
+
+    @Override
+    public int span(){
+        return 2;
+    }
+
+    @Override
+    public int weights(int lowerBound, double x, double[] weights){
+        int first = firstIndex(lowerBound);
+        double t = (x - xValues[first]) / (xValues[first+1] - xValues[first]);
+        weights[0] = 1 - t;
+        weights[1] = t;
+        return first;
+    }
+
+    private int firstIndex(int lowerBound){
+        return Math.max(1, Math.min(lowerBound, size - 1)) - 1;
+    }
+
+    @Override
+    public String getName(){
+        return "linear";
+    }
+}
@@ -0,0 +1,10 @@
+// Interpolant that combines a few samples around x with weights that depend only on the x values, so the weights found
+// for one function serve every function sampled at the same x values
+public interface LocalInterpolator extends Interpolator {
+    // Number of samples combined at each point
+    int span();
+
+    // Fills in the weights of the samples combined at x and returns the index of the first one. The value at x is the
+    // sum of weights[i]·f[first + i] for i in [0, span()), added in that order
+    int weights(int lowerBound, double x, double[] weights);
+}
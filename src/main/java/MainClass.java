@@ -5,13 +5,14 @@ import javax.swing.JComboBox;
 import javax.swing.JTextField;
 import javax.swing.JFileChooser;
 import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.JLabel;
 import javax.swing.JButton;
 import javax.swing.AbstractAction;
 import javax.swing.JOptionPane;
 import javax.swing.JScrollPane;
 import javax.swing.ImageIcon;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
 
 // Constraints, font, color, dimensions
 import java.awt.event.ActionListener;
@@ -22,40 +23,52 @@ import java.awt.Dimension;
 import java.awt.GridLayout;
 import java.awt.Color;
 import java.awt.Insets;
+import java.awt.Toolkit;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
 
 // Others
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.Objects;
-import java.util.ArrayList;
-import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import org.apache.commons.lang3.StringUtils;
+import java.util.concurrent.ExecutionException;
 
 // Graphing objects
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
-import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
 
 public class MainClass {
+    // Number of sub-intervals from which the area is computed on all available processors
+    private static final int PARALLEL_THRESHOLD = 1_000_000;
+
+    // Size in bytes from which files are integrated while being read instead of being loaded first
+    private static final long STREAMING_THRESHOLD = 64L << 20;
+
     // Java Swing Objects
     private final JFrame frame;
     private final JComboBox<String> dataImportOption;
     private final JTextField fieldForH;
     private final JTextField fieldForN;
     private final JTextField fieldForArea;
+    private final JLabel evaluationsLabel;
+    private final JButton showGraph;
+    private final JButton cancelButton;
+    private final JProgressBar progressBar;
     private final JFileChooser fileChoose;
     private final JComboBox<String> option;
+    private final JComboBox<String> channelOption;
     private final JTable table;
-    private final DefaultTableModel tableModel;
+    private final DataTableModel tableModel;
     private final GridBagConstraints constraints;
 
     // Data
-    private final ArrayList<Double> xValues = new ArrayList<>();
-    private final ArrayList<Double> fxValues = new ArrayList<>();
-    private ArrayList<Double> xInterpolatedValues;
-    private ArrayList<Double> fxInterpolatedValues;
+    private PlotDecimator plot;
+
+    // Job computing the area in the background. Jobs replaced by a newer one are left to finish cancelling on their own
+    private AreaWorker areaWorker;
 
     public MainClass() {
         // Frame
@@ -75,34 +88,50 @@ public class MainClass {
         fieldForN = new JTextField(12);
 
         //Output Area
-        fieldForArea = new JTextField(12);
+        fieldForArea = new JTextField(20);
+        evaluationsLabel = new JLabel();
+
+        // Progress of the area computation
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
 
         // Object for selecting integration method
         JLabel optionLabel = new JLabelC("Option: ", false);
-        option = new JComboBox<>(new String[]{"Trapezoidal Rule", "Simpson's Rule"});
+        option = new JComboBox<>(new String[]{"Trapezoidal Rule", "Simpson's Rule", "Trapezoidal and Simpson's Rules",
+                "Adaptive Simpson's Rule", "Trapezoidal Rule over samples", "Simpson's Rule over samples"});
+
+        // Column of f(x) integrated from a file with several channels
+        JLabel channelLabel = new JLabelC("Channel: ", false);
+        channelOption = new JComboBox<>(new String[]{"Channel 1"});
+        channelOption.setEnabled(false);
 
         // Object for importing file result field, and integration method objects
         fileChoose = new JFileChooser();
 
         // Show graph
-        JButton showGraph = new JButton(new AbstractAction("Graph") {
+        showGraph = new JButton(new AbstractAction("Graph") {
             @Override
             public void actionPerformed(ActionEvent e) {
-                // Create dataset
-                DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-                for (int i = 0; i < fxInterpolatedValues.size(); i++)
-                    dataset.addValue(fxInterpolatedValues.get(i), "f(x)", xInterpolatedValues.get(i));
+                long start = System.nanoTime();
+
+                // Create dataset from the decimated points, which are already sorted and at most 4 per pixel column
+                XYSeries series = new XYSeries("f(x)", false, true);
+                for (int i = 0; i < plot.size(); i++)
+                    series.add(plot.getX(i), plot.getFx(i), false);
+                XYSeriesCollection dataset = new XYSeriesCollection(series);
 
                 // Create chart panel
-                JPanel panelForChart = new ChartPanel(ChartFactory.createLineChart(
+                JPanel panelForChart = new ChartPanel(ChartFactory.createXYLineChart(
                         "Lagrange Interpolated Polynomial", "x", "f(x)", dataset));
 
                 // Open new frame with graph
                 JFrame myFrame = new JFrame("Function of X");
                 myFrame.add(panelForChart);
-                myFrame.setSize(1012, 675);
+                myFrame.setSize(PlotDecimator.DEFAULT_WIDTH + 12, 675);
                 myFrame.setLocationRelativeTo(null);
                 myFrame.setVisible(true);
+                if (IntegrationMetrics.ENABLED)
+                    IntegrationStatistics.get().addGraph(System.nanoTime() - start);
             }
         });
         showGraph.setEnabled(false);
@@ -123,66 +152,130 @@ public class MainClass {
                     JOptionPane.showMessageDialog(frame, "File has been deselected.");
                     showGraph.setEnabled(false);
                 }
+                updateChannels(file);
             }
         });
         browseFileButton.setEnabled(false);
 
+        // Save the table, or the chosen data file, as a binary data set that reloads without parsing
+        JButton saveDataset = new JButton(new AbstractAction("Save Dataset") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Dataset tableData = null;
+                File source = null;
+                try {
+                    if (Objects.equals(dataImportOption.getSelectedItem(), "Import Data"))
+                        tableData = tableModel.toDataset();
+                    else
+                        source = Objects.requireNonNull(fileChoose.getSelectedFile());
+                } catch (Exception exception) {
+                    showError(exception);
+                    return;
+                }
+
+                JFileChooser saveChooser = new JFileChooser(fileChoose.getCurrentDirectory());
+                if (saveChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION)
+                    return;
+                File chosen = saveChooser.getSelectedFile();
+                File target = (DatasetFile.isDatasetFile(chosen)) ? chosen
+                        : new File(chosen.getPath() + "." + DatasetFile.EXTENSION);
+
+                // Files are read and written in the background
+                Dataset data = tableData;
+                File file = source;
+                new SwingWorker<Void, Void>() {
+                    @Override
+                    protected Void doInBackground() throws Exception {
+                        DatasetFile.write((file == null) ? data : DataReader.readChannels(file), target);
+                        return null;
+                    }
+
+                    @Override
+                    protected void done() {
+                        try {
+                            get();
+                            JOptionPane.showMessageDialog(frame, "Data set saved to " + target.getName() + ".");
+                        } catch (ExecutionException exception) {
+                            showError(exception.getCause());
+                        } catch (InterruptedException exception) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }.execute();
+            }
+        });
+
         // Submit button ActionListener
         JButton findAreaButton = new JButton(new AbstractAction("Find Area") {
             @Override
             public void actionPerformed(ActionEvent e) {
                 int n = 0;
-                double h = 0, area;
-                boolean validEntries = true;
-                xValues.clear();
-                fxValues.clear();
+                double h = 0, tolerance = 0;
+                boolean isTrap = String.valueOf(option.getSelectedItem()).charAt(0) == 'T';
+                boolean isAdaptive = isAdaptiveSelected();
+                boolean isSamples = isSamplesSelected();
+                boolean isCombined = isCombinedSelected();
+                int channel = channelOption.getSelectedIndex();
+                Dataset tableData = null;
+                File file = null;
+
+                // A new computation replaces the running one
+                if (areaWorker != null)
+                    areaWorker.cancel(false);
+                areaWorker = null;
+                evaluationsLabel.setText("");
+                fieldForArea.setText("");
+                showGraph.setEnabled(false);
 
                 try {
-                    // Try to parse the values for h, n and the file/data
-                    h = getH();
-                    n = getN();
-                    getData((Objects.equals(dataImportOption.getSelectedItem(), "Import Data")) ? 1 : 0);
+                    // Try to parse the values for h and n, or the tolerance, and the data. Files are read in the background
+                    if (isAdaptive)
+                        tolerance = getTolerance();
+                    else if (!isSamples) {
+                        h = getH();
+                        n = getN();
+                    }
+
+                    if (Objects.equals(dataImportOption.getSelectedItem(), "Import Data"))
+                        tableData = tableModel.toDataset();
+                    else
+                        file = Objects.requireNonNull(fileChoose.getSelectedFile());
                 } catch (Exception exception) {
                     // If there is some error, open a pane showing the error
-                    if (exception instanceof FileNotFoundException || exception instanceof NullPointerException)
-                        JOptionPane.showMessageDialog(frame, "Missing file.");
-                    else if (exception instanceof NumberFormatException)
-                        JOptionPane.showMessageDialog(frame, "Table contains non-parsable data.");
-                    else
-                        JOptionPane.showMessageDialog(frame, exception.getMessage());
-                    validEntries = false;
+                    showError(exception);
+                    return;
                 }
 
-                // If no error was thrown, compute the area
-                if (validEntries) {
-                    boolean isTrap = String.valueOf(option.getSelectedItem()).charAt(0) == 'T';
-
-                    // Numerical Integration Object
-                    NumericalIntegration integrateObject = new NumericalIntegration(xValues, fxValues);
-
-                    // Compute the area and obtain the sub-dataset for the graph
-                    area = integrateObject.integrate(n, h, isTrap);
-                    xInterpolatedValues = integrateObject.getxGraphValues();
-                    fxInterpolatedValues = integrateObject.getfxGraphValues();
-                    showGraph.setEnabled(true);
-
-                    // Display the area
-                    fieldForArea.setText(String.valueOf(Math.round(area * 1e6) / 1e6));
-                } else
-                    showGraph.setEnabled(false);
+                // Compute the area in the background
+                areaWorker = new AreaWorker(n, h, tolerance, isTrap, isAdaptive, isSamples, isCombined, tableData,
+                        file, channel);
+                AreaWorker worker = areaWorker;
+                worker.addPropertyChangeListener(event -> {
+                    if (worker == areaWorker && event.getPropertyName().equals("progress"))
+                        progressBar.setValue((Integer) event.getNewValue());
+                });
+                progressBar.setValue(0);
+                cancelButton.setEnabled(true);
+                worker.execute();
+            }
+        });
 
+        // Stops the running computation
+        cancelButton = new JButton(new AbstractAction("Cancel") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (areaWorker != null)
+                    areaWorker.cancel(false);
             }
         });
+        cancelButton.setEnabled(false);
 
-        // Add a row as long as the number of rows does not exceed 50
+        // Add a row after the selected one, or at the end
         JButton addRow = new JButton(new AbstractAction("Add Row") {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (tableModel.getRowCount() < 50) {
-                    int index = (table.getSelectedRow() == -1) ? table.getRowCount() : table.getSelectedRow() + 1;
-                    tableModel.insertRow(index, new String[]{"", ""});
-                } else
-                    JOptionPane.showMessageDialog(frame, "You have exceeded the maximum rows (50 rows).");
+                int index = (table.getSelectedRow() == -1) ? table.getRowCount() : table.getSelectedRow() + 1;
+                tableModel.insertEmptyRow(index);
             }
         });
 
@@ -202,10 +295,7 @@ public class MainClass {
         JButton pushDown = new JButton(new AbstractAction("Push Down") {
             @Override
             public void actionPerformed(ActionEvent e) {
-                if (tableModel.getRowCount() >= 50)
-                    JOptionPane.showMessageDialog(frame, "You have exceeded the maximum rows (50 rows).");
-                else
-                    tableModel.insertRow(0, new String[]{"", ""});
+                tableModel.insertEmptyRow(0);
             }
         });
 
@@ -213,9 +303,9 @@ public class MainClass {
         JButton clearData = new JButton(new AbstractAction("Clear table") {
             @Override
             public void actionPerformed(ActionEvent e) {
-                int rowCount = tableModel.getRowCount();
-                tableModel.setRowCount(0);
-                tableModel.setRowCount(rowCount);
+                if (table.isEditing())
+                    table.getCellEditor().cancelCellEditing();
+                tableModel.clear();
             }
         });
 
@@ -237,6 +327,7 @@ public class MainClass {
                     pushDown.setEnabled(false);
                     clearData.setEnabled(false);
                     browseFileButton.setEnabled(true);
+                    updateChannels(fileChoose.getSelectedFile());
                 } else {
                     table.setEnabled(true);
                     table.setGridColor(Color.BLACK);
@@ -245,10 +336,22 @@ public class MainClass {
                     pushDown.setEnabled(true);
                     clearData.setEnabled(true);
                     browseFileButton.setEnabled(false);
+                    updateChannels(null);
                 }
             }
         });
 
+        // The adaptive rule takes a tolerance in place of h and does not use n, the rules over samples use neither
+        option.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                boolean isAdaptive = isAdaptiveSelected(), isSamples = isSamplesSelected();
+                hLabel.setText((isAdaptive) ? "Enter tol: " : "Enter h: ");
+                fieldForH.setEnabled(!isSamples);
+                fieldForN.setEnabled(!isAdaptive && !isSamples);
+            }
+        });
+
         // Constraints settings
         constraints = new GridBagConstraints();
         constraints.insets = new Insets(5, 5, 5, 5);
@@ -306,18 +409,47 @@ public class MainClass {
         setConstaints(0, 5);
         inputPanel.add(showGraph, constraints);
 
+        setConstaints(1, 5);
+        inputPanel.add(evaluationsLabel, constraints);
+
+        setConstaints(0, 6);
+        inputPanel.add(cancelButton, constraints);
+
+        setConstaints(1, 6);
+        inputPanel.add(progressBar, constraints);
+
+        setConstaints(0, 7);
+        inputPanel.add(channelLabel, constraints);
+
+        setConstaints(1, 7);
+        inputPanel.add(channelOption, constraints);
+
         //Data Panel Design
-        tableModel = new DefaultTableModel(6, 2) {
-            // Set column names
-            @Override
-            public String getColumnName(int index) {
-                return (index == 0) ? "x" : "f(x)";
-            }
-        };
+        tableModel = new DataTableModel(6);
         table = new JTable(tableModel);
+        table.setDefaultEditor(Object.class, new NumberCellEditor());
         table.setGridColor(Color.BLACK);
         table.setRowHeight(25);
 
+        // Paste rows of "x,f(x)" or tab separated values from the clipboard, starting at the selected row
+        table.getActionMap().put("paste", new AbstractAction("Paste") {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                try {
+                    String text = (String) Toolkit.getDefaultToolkit().getSystemClipboard()
+                            .getData(DataFlavor.stringFlavor);
+                    int row = (table.getSelectedRow() == -1) ? 0 : table.getSelectedRow();
+                    if (table.isEditing())
+                        table.getCellEditor().cancelCellEditing();
+                    tableModel.paste(text, row);
+                } catch (UnsupportedFlavorException | IOException exception) {
+                    JOptionPane.showMessageDialog(frame, "Clipboard does not contain text.");
+                } catch (IllegalTableContentsException exception) {
+                    JOptionPane.showMessageDialog(frame, exception.getMessage());
+                }
+            }
+        });
+
         JScrollPane pane = new JScrollPane(table) {
             // Set pane dimensions
             @Override
@@ -341,6 +473,8 @@ public class MainClass {
         //Browse button and data field
         setConstaints(0, 1);
         dataPanel.add(browseFileButton, constraints);
+        setConstaints(1, 1);
+        dataPanel.add(saveDataset, constraints);
 
         //Input and Data Panel Design
         inputAndData.add(inputPanel);
@@ -383,7 +517,7 @@ public class MainClass {
 
         // If H is non-positive or not a number, exception will be thrown
         try {
-            double h = parseFractionalValue(valueOfH);
+            double h = NumberLexer.parse(valueOfH);
             if (h <= 0)
                 throw new InvalidNOrHException();
             return h;
@@ -392,13 +526,56 @@ public class MainClass {
         }
     }
 
+    private double getTolerance() throws InvalidToleranceException {
+        String valueOfTolerance = fieldForH.getText();
+
+        // If the tolerance is non-positive or not a number, exception will be thrown
+        try {
+            double tolerance = NumberLexer.parse(valueOfTolerance);
+            if (tolerance <= 0)
+                throw new InvalidToleranceException();
+            return tolerance;
+        } catch (Exception exception) {
+            throw new InvalidToleranceException();
+        }
+    }
+
+    // Lists the channels of the chosen file, only reading its first row or header. Files that cannot be read keep a
+    // single channel and report their error when the area is computed
+    private void updateChannels(File file) {
+        int channels = 1;
+        if (file != null) {
+            try {
+                channels = DataReader.channelCount(file);
+            } catch (Exception exception) {
+                channels = 1;
+            }
+        }
+        channelOption.removeAllItems();
+        for (int c = 1; c <= channels; c++)
+            channelOption.addItem("Channel " + c);
+        channelOption.setEnabled(channels > 1);
+    }
+
+    private boolean isAdaptiveSelected() {
+        return String.valueOf(option.getSelectedItem()).equals("Adaptive Simpson's Rule");
+    }
+
+    private boolean isCombinedSelected() {
+        return String.valueOf(option.getSelectedItem()).equals("Trapezoidal and Simpson's Rules");
+    }
+
+    private boolean isSamplesSelected() {
+        return String.valueOf(option.getSelectedItem()).endsWith(" over samples");
+    }
+
     private int getN() throws SimpsonsRuleException, InvalidNOrHException {
         String valueOfN = fieldForN.getText();
         double value;
 
         // If N is not an double, exception will be thrown
         try {
-            value = parseFractionalValue(valueOfN);
+            value = NumberLexer.parse(valueOfN);
         } catch (Exception exception) {
             throw new InvalidNOrHException();
         }
@@ -412,107 +589,140 @@ public class MainClass {
         // If N is non-positive or odd when Simpson's Rule is selected, error will be thrown
         if (n <= 0)
             throw new InvalidNOrHException();
-        if (n % 2 == 1 && String.valueOf(option.getSelectedItem()).equals("Simpson's Rule"))
+        if (n % 2 == 1 && (String.valueOf(option.getSelectedItem()).equals("Simpson's Rule") || isCombinedSelected()))
             throw new SimpsonsRuleException();
 
         return n;
     }
 
-    private double parseFractionalValue(String value) {
-        double h;
-
-        // If value contains pi or a number followed by pi, parse the value to numbers
-        if (value.contains("pi")) {
-            Pattern pattern = Pattern.compile("[0-9.]+(?=pi)");
-            Matcher matcher = pattern.matcher(value);
+    private void showError(Throwable exception) {
+        if (exception instanceof FileNotFoundException || exception instanceof NullPointerException)
+            JOptionPane.showMessageDialog(frame, "Missing file.");
+        else if (exception instanceof NumberFormatException)
+            JOptionPane.showMessageDialog(frame, "Table contains non-parsable data.");
+        else
+            JOptionPane.showMessageDialog(frame, exception.getMessage());
+    }
 
-            // If there is text before pi, try to parse that text into a number and replace the entire value in the string
-            // Otherwise, just replace pi with the pi constant
-            if (matcher.find()) {
-                double multiple = Double.parseDouble(matcher.group(0));
-                value = value.replaceAll(".+pi", String.valueOf(multiple * Math.PI));
-            }
-            else
-                value = value.replaceAll("pi", String.valueOf(Math.PI));
+    // Shows the result of a background computation, unless a newer one has replaced it
+    private void finishArea(AreaWorker worker) {
+        if (worker != areaWorker)
+            return;
+        areaWorker = null;
+        cancelButton.setEnabled(false);
+
+        if (worker.isCancelled()) {
+            progressBar.setValue(0);
+            fieldForArea.setText("Cancelled");
+            return;
         }
-        // If value contains '/', interpret the value as a fraction and try to obtain the quotient
-        // Otherwise, simply parse the value
-        if (value.contains("/") && StringUtils.countMatches(value, "/") == 1) {
-            String[] num = value.split("/");
-            double left = Double.parseDouble(num[0]);
-            double right = Double.parseDouble(num[1]);
-
-            // Division by 0 is illegal, throws an error
-            if (right == 0)
-                throw new NumberFormatException();
-
-            h = left / right;
+        try {
+            double area = worker.get();
+            plot = worker.plot;
+            if (worker.evaluations > 0)
+                evaluationsLabel.setText("Evaluations: " + worker.evaluations);
+            showGraph.setEnabled(true);
+            progressBar.setValue(100);
+
+            // Display the area, or both areas side by side with the error estimate of the Trapezoidal Rule
+            if (worker.combined != null) {
+                fieldForArea.setText("T " + round(worker.combined.getTrapezoidal()) + " | S "
+                        + round(worker.combined.getSimpsons()));
+                evaluationsLabel.setText(String.format("Error estimate: %.3g", worker.combined.getErrorEstimate()));
+            } else
+                fieldForArea.setText(String.valueOf(round(area)));
+        } catch (ExecutionException exception) {
+            progressBar.setValue(0);
+            showError(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
         }
-        else
-            h = Double.parseDouble(value);
-
-        return h;
     }
 
-    private void getData(int option) throws FileNotFoundException, FileFormatException, IllegalFileContentsException, IllegalTableContentsException, InsufficientDataException {
-        if (option == 1)
-            readTable();
-        else
-            readFile();
+    private static double round(double area) {
+        return Math.round(area * 1e6) / 1e6;
     }
 
-    private void readTable() throws IllegalTableContentsException, InsufficientDataException {
-        String num1, num2;
-        for (int i = 0; i < table.getRowCount(); i++) {
-            // Get the values of the first and second column for the ith row
-            num1 = (String) table.getValueAt(i, 0);
-            num2 = (String) table.getValueAt(i, 1);
-
-            // Try to parse both values, throw an exception if not possible
-            try {
-                xValues.add(parseFractionalValue(num1));
-                fxValues.add(parseFractionalValue(num2));
-            } catch (Exception exception) {
-                throw new IllegalTableContentsException();
-            }
+    // Reads the file, if any, and computes the area off the event-dispatch thread. The integration checks the worker
+    // for cancellation and reports its progress to it
+    private class AreaWorker extends SwingWorker<Double, Void> implements IntegrationProgress {
+        private final int n;
+        private final double h;
+        private final double tolerance;
+        private final boolean isTrap;
+        private final boolean isAdaptive;
+        private final boolean isSamples;
+        private final boolean isCombined;
+        private final Dataset tableData;
+        private final File file;
+        private final int channel;
+        private PlotDecimator plot;
+        private long evaluations;
+        private CombinedArea combined;
+
+        AreaWorker(int n, double h, double tolerance, boolean isTrap, boolean isAdaptive, boolean isSamples,
+                   boolean isCombined, Dataset tableData, File file, int channel) {
+            this.n = n;
+            this.h = h;
+            this.tolerance = tolerance;
+            this.isTrap = isTrap;
+            this.isAdaptive = isAdaptive;
+            this.isSamples = isSamples;
+            this.isCombined = isCombined;
+            this.tableData = tableData;
+            this.file = file;
+            this.channel = channel;
         }
-        // Data set must contain at least 3 data points
-        if (xValues.size() < 3)
-            throw new InsufficientDataException();
-    }
-
-    private void readFile() throws FileNotFoundException, FileFormatException, IllegalFileContentsException, InsufficientDataException {
-        File importedFile = fileChoose.getSelectedFile();
 
-        // Get the file's extension
-        String fileName = importedFile.getName();
-        int periodIndex = fileName.lastIndexOf(".");
-        String ext = fileName.substring(periodIndex + 1);
-
-        // If the extension is not txt or csv, throw an error
-        if (!ext.equals("txt") && !ext.equals("csv"))
-            throw new FileFormatException();
-
-        // Read the file contents
-        Scanner fileScanner = new Scanner(importedFile);
-        while (fileScanner.hasNextLine()) {
-            String line = fileScanner.nextLine();
-
-            // Each row in file must contain one comma, throw an error otherwise
-            if (StringUtils.countMatches(line, ",") != 1)
-                throw new IllegalFileContentsException();
+        @Override
+        protected Double doInBackground() throws Exception {
+            double area;
+
+            // Large single-channel files are integrated while they are read
+            if (file != null && !isAdaptive && !isSamples && !isCombined && !DatasetFile.isDatasetFile(file)
+                    && file.length() >= STREAMING_THRESHOLD && DataReader.channelCount(file) == 1) {
+                DataReader.checkExtension(file);
+                StreamingIntegration streamingObject = new StreamingIntegration(n, h, isTrap);
+                streamingObject.setProgress(this);
+                area = streamingObject.integrate(file);
+                plot = streamingObject.getPlot();
+                return area;
+            }
 
-            // Try to get the numbers on the left and right side of the comma, throw an error if not possible
-            String[] pair = line.split(",");
-            try {
-                xValues.add(parseFractionalValue(pair[0]));
-                fxValues.add(parseFractionalValue(pair[1]));
-            } catch (NumberFormatException exception) {
+            // Numerical Integration Object, on the chosen channel of a file that has several
+            Dataset dataset = (file == null) ? tableData : DataReader.read(file);
+            if (channel >= dataset.getChannelCount())
                 throw new IllegalFileContentsException();
+            NumericalIntegration integrateObject = new NumericalIntegration(dataset, channel);
+            integrateObject.setProgress(this);
+            integrateObject.setCache(ResultCache.shared());
+
+            // Compute the area and obtain the sub-dataset for the graph
+            if (isAdaptive) {
+                area = integrateObject.integrateAdaptive(tolerance);
+                evaluations = integrateObject.getFunctionEvaluations();
+            } else if (isSamples)
+                area = integrateObject.integrateSamples(isTrap);
+            else if (isCombined) {
+                combined = integrateObject.integrateCombined(n, h);
+                area = combined.getSimpsons();
             }
+            else if (n >= PARALLEL_THRESHOLD)
+                area = integrateObject.integrateParallel(n, h, isTrap, Runtime.getRuntime().availableProcessors());
+            else
+                area = integrateObject.integrate(n, h, isTrap);
+            plot = integrateObject.getPlot();
+            return area;
+        }
+
+        @Override
+        public void update(double fraction) {
+            setProgress((int) Math.max(0, Math.min(100, Math.round(fraction * 100))));
+        }
+
+        @Override
+        protected void done() {
+            finishArea(this);
         }
-        // Data set must contain at least 3 data points
-        if (xValues.size() < 3)
-            throw new InsufficientDataException();
     }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+// Integrates every f(x) channel of a data set in a single walk over the grid with NumericalIntegration.integrateRows.
+// The interval lookup and the Lagrange basis weights of each grid point depend only on x, so they are computed once
+// and applied to all the channels. Each channel's area is identical to what NumericalIntegration.integrate computes
+// for that channel alone with the same kernel, and is cached under the same key, so single-channel and multi-channel
+// runs of the same data share their results.
+public class MultiChannelIntegration {
+    private final double[] xValues;
+    private final double[][] channels;
+    private final IntervalLocator locator;
+    private WeightedSumKernel kernel = WeightedSumKernels.initial();
+    private ResultCache cache;
+    private long[] fingerprints;
+
+    // Each channel holds one value per x value. The x values must be sorted in ascending order
+    MultiChannelIntegration(double[] xValues, double[][] channels){
+        this(xValues, channels, null);
+    }
+
+    MultiChannelIntegration(Dataset dataset){
+        this(dataset.getxValues(), dataset.getChannels(), dataset.getUniform());
+    }
+
+    private MultiChannelIntegration(double[] xValues, double[][] channels, Boolean uniform){
+        for (double[] channel : channels){
+            if (channel.length != xValues.length)
+                throw new IllegalArgumentException("Every channel must have one value per x value.");
+        }
+        this.xValues = xValues;
+        this.channels = channels;
+        this.locator = (uniform == null) ? new IntervalLocator(xValues)
+                : new IntervalLocator(xValues, new IntegrationMetrics(), uniform);
+    }
+
+    // Returns the area of each channel with n sub-intervals of width h. Only the channels missing from the cache are
+    // integrated
+    public double[] integrate(int n, double h, boolean trapRule){
+        IntegrationRule rule = (trapRule) ? IntegrationRule.TRAPEZOIDAL : IntegrationRule.SIMPSONS;
+        LagrangeInterpolator interpolator = new LagrangeInterpolator(xValues, channels[0]);
+        if (cache == null)
+            return NumericalIntegration.integrateRows(xValues, channels, locator, interpolator, kernel, n, h, trapRule,
+                    null);
+
+        if (fingerprints == null){
+            fingerprints = new long[channels.length];
+            for (int c = 0; c < channels.length; c++)
+                fingerprints[c] = ResultCache.fingerprint(xValues, channels[c]);
+        }
+        double[] areas = new double[channels.length];
+        ResultCache.Key[] keys = new ResultCache.Key[channels.length];
+        int[] missing = new int[channels.length];
+        int missingCount = 0;
+        for (int c = 0; c < channels.length; c++){
+            keys[c] = new ResultCache.Key(fingerprints[c], xValues.length, rule, n, h, 0,
+                    NumericalIntegration.gridVariant(kernel) + "/" + interpolator.getName());
+            ResultCache.Entry cached = cache.get(keys[c]);
+            if (cached != null)
+                areas[c] = cached.getArea();
+            else
+                missing[missingCount++] = c;
+        }
+        if (missingCount == 0)
+            return areas;
+
+        // The missing channels are integrated together, with the graph a single-channel run would cache
+        double[][] rows = new double[missingCount][];
+        PlotDecimator[] plots = new PlotDecimator[missingCount];
+        for (int r = 0; r < missingCount; r++){
+            rows[r] = channels[missing[r]];
+            plots[r] = new PlotDecimator(PlotDecimator.DEFAULT_WIDTH);
+        }
+        double[] computed = NumericalIntegration.integrateRows(xValues, rows, locator, interpolator, kernel, n, h,
+                trapRule, plots);
+        for (int r = 0; r < missingCount; r++){
+            areas[missing[r]] = computed[r];
+            cache.put(keys[missing[r]], new ResultCache.Entry(computed[r], n + 1, null, Double.NaN, plots[r]));
+        }
+        return areas;
+    }
+
+    // Results of the following integrations are looked up in, and added to, the cache. Null disables caching
+    public void setCache(ResultCache cache){
+        this.cache = cache;
+    }
+
+    // When enabled, the weighted sums are computed in blocks by the vector kernel if the JVM provides the
+    // jdk.incubator.vector module, and by the scalar kernel otherwise. The default is set by -Dintegration.vector
+    public void setVectorized(boolean vectorized){
+        kernel = (vectorized) ? WeightedSumKernels.best() : WeightedSumKernels.SCALAR;
+    }
+
+    public int getChannelCount(){
+        return channels.length;
+    }
+}
@@ -0,0 +1,41 @@
+import java.awt.Color;
+import java.awt.Component;
+import javax.swing.DefaultCellEditor;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.border.LineBorder;
+
+// Editor of the data table that parses the text when editing stops, so the model only receives numbers. Text that
+// cannot be parsed keeps the editor open with a red border, like the number editor of JTable. Empty text clears the cell
+public class NumberCellEditor extends DefaultCellEditor {
+    private double value;
+
+    NumberCellEditor(){
+        super(new JTextField());
+    }
+
+    @Override
+    public boolean stopCellEditing() {
+        JTextField field = (JTextField) getComponent();
+        String text = field.getText();
+        try {
+            value = (text.isBlank()) ? Double.NaN : NumberLexer.parse(text);
+        } catch (NumberFormatException exception) {
+            field.setBorder(new LineBorder(Color.RED));
+            return false;
+        }
+        return super.stopCellEditing();
+    }
+
+    @Override
+    public Object getCellEditorValue() {
+        return value;
+    }
+
+    @Override
+    public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column) {
+        JTextField field = (JTextField) super.getTableCellEditorComponent(table, value, isSelected, row, column);
+        field.setBorder(new LineBorder(Color.BLACK));
+        return field;
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Parses the numbers accepted in the fields, table and files: plain decimals, multiples of pi (e.g. 2pi, pi) and
+// fractions of them (e.g. pi/4, 1/3). The common forms are lexed straight from the characters without creating
+// strings. Anything else goes through the original regular expression parsing, so the accepted values and the
+// rejected ones are the same as before. Rejected values throw a NumberFormatException.
+public final class NumberLexer {
+    private static final Pattern MULTIPLE_OF_PI = Pattern.compile("[0-9.]+(?=pi)");
+
+    // Powers of ten that are exact doubles
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Largest mantissa below which every integer is an exact double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // Sentinel returned by the lexing methods when the text is not in the grammar they handle
+    private static final double NOT_LEXED = Double.NaN;
+
+    private NumberLexer(){
+    }
+
+    public static double parse(CharSequence text){
+        return parse(text, 0, text.length());
+    }
+
+    // Parses the characters in [from, to)
+    public static double parse(CharSequence text, int from, int to){
+        double value = lexFraction(text, from, to);
+        if (Double.isNaN(value))
+            return parseLegacy(text.subSequence(from, to).toString());
+        return value;
+    }
+
+    // Lexes term or term/term. Returns NOT_LEXED when the text needs the legacy parser, which also decides whether a
+    // fraction with a zero denominator is rejected
+    private static double lexFraction(CharSequence text, int from, int to){
+        int slash = -1;
+        for (int i = from; i < to; i++){
+            if (text.charAt(i) == '/'){
+                if (slash != -1)
+                    return NOT_LEXED;
+                slash = i;
+            }
+        }
+        if (slash == -1)
+            return lexTerm(text, from, to, true);
+
+        double left = lexTerm(text, from, slash, true);
+        double right = lexTerm(text, slash + 1, to, false);
+        if (Double.isNaN(left) || Double.isNaN(right) || right == 0)
+            return NOT_LEXED;
+        return left / right;
+    }
+
+    // Lexes a decimal, or when pi is allowed, an unsigned decimal followed by pi or a signed pi. Surrounding
+    // whitespace is ignored like Double.parseDouble does
+    private static double lexTerm(CharSequence text, int from, int to, boolean allowPi){
+        while (from < to && text.charAt(from) <= ' ')
+            from++;
+        while (to > from && text.charAt(to - 1) <= ' ')
+            to--;
+        if (from == to)
+            return NOT_LEXED;
+
+        if (allowPi && to - from >= 2 && text.charAt(to - 2) == 'p' && text.charAt(to - 1) == 'i'){
+            int end = to - 2;
+            if (end == from)
+                return Math.PI;
+
+            // The sign of a multiple of pi is dropped by the legacy parser, leave those to it
+            char first = text.charAt(from);
+            if (end - from == 1 && (first == '-' || first == '+'))
+                return (first == '-') ? -Math.PI : Math.PI;
+            if (first == '-' || first == '+')
+                return NOT_LEXED;
+
+            double multiple = lexDecimal(text, from, end, false);
+            return Double.isNaN(multiple) ? NOT_LEXED : multiple * Math.PI;
+        }
+        return lexDecimal(text, from, to, true);
+    }
+
+    // Lexes [sign] digits [. digits] [exponent] with at least one digit. The value is exact when the mantissa and the
+    // power of ten are exact doubles, otherwise the legacy parser computes it
+    private static double lexDecimal(CharSequence text, int from, int to, boolean allowSignAndExponent){
+        int i = from, digits = 0, significantDigits = 0, fractionDigits = 0, exponent = 0;
+        boolean negative = false, dot = false;
+        long mantissa = 0;
+        char c;
+
+        if (allowSignAndExponent && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+            negative = text.charAt(i++) == '-';
+
+        for (; i < to; i++){
+            c = text.charAt(i);
+            if (c >= '0' && c <= '9'){
+                digits++;
+                if (dot)
+                    fractionDigits++;
+                if (mantissa != 0 || c != '0')
+                    significantDigits++;
+                if (significantDigits > 18)
+                    return NOT_LEXED;
+                mantissa = mantissa * 10 + (c - '0');
+            }
+            else if (c == '.' && !dot)
+                dot = true;
+            else
+                break;
+        }
+        if (digits == 0)
+            return NOT_LEXED;
+
+        if (i < to){
+            c = text.charAt(i);
+            if (!allowSignAndExponent || (c != 'e' && c != 'E') || ++i == to)
+                return NOT_LEXED;
+
+            boolean negativeExponent = false;
+            if (text.charAt(i) == '-' || text.charAt(i) == '+'){
+                negativeExponent = text.charAt(i++) == '-';
+                if (i == to)
+                    return NOT_LEXED;
+            }
+            for (; i < to; i++){
+                c = text.charAt(i);
+                if (c < '0' || c > '9' || exponent > 1000)
+                    return NOT_LEXED;
+                exponent = exponent * 10 + (c - '0');
+            }
+            if (negativeExponent)
+                exponent = -exponent;
+        }
+
+        double value;
+        int powerOfTen = exponent - fractionDigits;
+        if (mantissa == 0)
+            value = 0;
+        else if (mantissa > MAX_EXACT_MANTISSA || Math.abs(powerOfTen) >= POWERS_OF_TEN.length)
+            return NOT_LEXED;
+        else if (powerOfTen >= 0)
+            value = mantissa * POWERS_OF_TEN[powerOfTen];
+        else
+            value = mantissa / POWERS_OF_TEN[-powerOfTen];
+        return (negative) ? -value : value;
+    }
+
+    // Original parser based on regular expressions
+    static double parseLegacy(String value) {
+        double h;
+
+        // If value contains pi or a number followed by pi, parse the value to numbers
+        if (value.contains("pi")) {
+            Matcher matcher = MULTIPLE_OF_PI.matcher(value);
+
+            // If there is text before pi, try to parse that text into a number and replace the entire value in the string
+            // Otherwise, just replace pi with the pi constant
+            if (matcher.find()) {
+                double multiple = Double.parseDouble(matcher.group(0));
+                value = value.replaceAll(".+pi", String.valueOf(multiple * Math.PI));
+            }
+            else
+                value = value.replaceAll("pi", String.valueOf(Math.PI));
+        }
+        // If value contains '/', interpret the value as a fraction and try to obtain the quotient
+        // Otherwise, simply parse the value
+        int slash = value.indexOf('/');
+        if (slash != -1 && value.indexOf('/', slash + 1) == -1) {
+            String[] num = value.split("/");
+            if (num.length != 2)
+                throw new NumberFormatException();
+            double left = Double.parseDouble(num[0]);
+            double right = Double.parseDouble(num[1]);
+
+            // Division by 0 is illegal, throws an error
+            if (right == 0)
+                throw new NumberFormatException();
+
+            h = left / right;
+        }
+        else
+            h = Double.parseDouble(value);
+
+        return h;
+    }
+}
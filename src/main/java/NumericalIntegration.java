@@ -1,165 +1,880 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class NumericalIntegration {
-    private final ArrayList<Double> xValues;
-    private final ArrayList<Double> fxValues;
-    private final ArrayList<Double> xGraphValues;
-    private final ArrayList<Double> fxGraphValues;
+    // Number of grid points summed by each task in parallel mode. It is fixed so that the order of the summation, and
+    // therefore the result, does not depend on the number of threads
+    static final int CHUNK_SIZE = 1 << 14;
+
+    // Limits of the adaptive rule when the tolerance cannot be met. Intervals are halved at most MAX_ADAPTIVE_DEPTH
+    // times, and once MAX_ADAPTIVE_EVALUATIONS have been made no interval is halved any further, which is what bounds
+    // the work. Intervals narrower than the closest samples, or too narrow to halve in floating point, are not halved
+    // either, and tolerances below MIN_RELATIVE_TOLERANCE times the scale of the area are rejected
+    private static final int MAX_ADAPTIVE_DEPTH = 30;
+    private static final long MAX_ADAPTIVE_EVALUATIONS = 1 << 21;
+    private static final double MIN_RELATIVE_TOLERANCE = 1e-15;
+
+    // The progress is reported, and cancellation checked, every PROGRESS_MASK + 1 grid points
+    private static final int PROGRESS_MASK = (1 << 14) - 1;
+
+    private final double[] xValues;
+    private final double[] fxValues;
+    private final IntervalLocator locator;
+    private final PlotDecimator plot = new PlotDecimator(PlotDecimator.DEFAULT_WIDTH);
     private final int size;
-    private int modulusDividend;
+    private WeightedSumKernel kernel = WeightedSumKernels.initial();
+    private long functionEvaluations;
+    private double[][] rombergTableau = new double[0][];
+    private double errorEstimate = Double.NaN;
+    private CumulativeIntegral cumulativeIntegral;
+    private Interpolator interpolator;
+    private IntegrationProgress progress = IntegrationProgress.NONE;
+    private final AtomicLong completedPoints = new AtomicLong();
+    private final IntegrationMetrics metrics = new IntegrationMetrics();
+    private ResultCache cache;
+    private long fingerprint;
+    private boolean fingerprinted;
 
     NumericalIntegration(ArrayList<Double> xValues, ArrayList<Double> fxValues){
+        this(toArray(xValues), toArray(fxValues));
+    }
+
+    // The x values must be sorted in ascending order
+    NumericalIntegration(double[] xValues, double[] fxValues){
+        this(xValues, fxValues, null);
+    }
+
+    // Integrates one channel of the data set, with the spacing it was loaded with when that is known
+    NumericalIntegration(Dataset dataset, int channel){
+        this(dataset.getxValues(), dataset.getChannel(channel), dataset.getUniform());
+    }
+
+    private NumericalIntegration(double[] xValues, double[] fxValues, Boolean uniform){
         this.xValues = xValues;
         this.fxValues = fxValues;
-        this.xGraphValues = new ArrayList<>();
-        this.fxGraphValues = new ArrayList<>();
-        size = xValues.size();
+        this.locator = (uniform == null) ? new IntervalLocator(xValues, metrics)
+                : new IntervalLocator(xValues, metrics, uniform);
+        this.interpolator = new LagrangeInterpolator(xValues, fxValues);
+        size = xValues.length;
     }
     public double integrate(int n, double h, boolean trapRule){
-        modulusDividend = (n > 16) ? (int)Math.round(n / 16.0) : 1;
+        IntegrationRule rule = (trapRule) ? IntegrationRule.TRAPEZOIDAL : IntegrationRule.SIMPSONS;
+        ResultCache.Key key = cacheKey(rule, n, h, 0, gridVariant(kernel));
+        ResultCache.Entry cached = lookUp(key);
+        if (cached != null)
+            return restore(cached);
+
+        IntegrationEvent event = beginRun();
+        functionEvaluations = n + 1;
+        resetGridPlot(n, h);
+        double area;
+        if (kernel != WeightedSumKernels.SCALAR){
+            completedPoints.set(0);
+            double sum = pairwiseSum(n, h, trapRule, 0, chunkCount(n), new double[CHUNK_SIZE]);
+            area = chunkedArea(n, h, trapRule, sum);
+        }
+        else if (trapRule)
+            area = trapezoidalRule(n, h);
+        else
+            area = simpsonsRule(n, h);
+        return store(key, endRun(event, rule, n, area));
+    }
+
+    // Trapezoidal and Simpson's Rules, and the Trapezoidal Rule with half as many sub-intervals, from one walk over the
+    // grid, so each point is located and interpolated once. N must be even. The areas are the same as integrate
+    // computes for each rule with the scalar loop, and are cached as such
+    public CombinedArea integrateCombined(int n, double h){
+        if (n < 2 || n % 2 == 1)
+            throw new IllegalArgumentException("N must be even and positive.");
+        ResultCache.Key trapezoidalKey = cacheKey(IntegrationRule.TRAPEZOIDAL, n, h, 0, "loop");
+        ResultCache.Key simpsonsKey = cacheKey(IntegrationRule.SIMPSONS, n, h, 0, "loop");
+        ResultCache.Entry trapezoidal = lookUp(trapezoidalKey), simpsons = lookUp(simpsonsKey);
+        if (trapezoidal != null && simpsons != null){
+            // Simpson's Rule is (4·T(h) - T(2h))/3, which gives back the half resolution trapezoid
+            restore(simpsons);
+            errorEstimate = Math.abs(simpsons.getArea() - trapezoidal.getArea());
+            return new CombinedArea(trapezoidal.getArea(), simpsons.getArea(),
+                    4 * trapezoidal.getArea() - 3 * simpsons.getArea());
+        }
+
+        IntegrationEvent event = beginRun();
+        double sum = 0, halfSum = 0, simpsonsArea = 0, a = xValues[0], fxk, xk;
+        GridCursor cursor = new GridCursor(xValues, fxValues, locator, metrics, interpolator);
+        GridPlot graph = new GridPlot(a, h);
+        resetGridPlot(n, h);
+
+        double fxo = fxValues[0];
+        simpsonsArea += fxo;
+
+        // Every point goes into the trapezoid sum, the odd ones 4 times and the even ones twice into Simpson's, and the
+        // even ones into the half resolution trapezoid
+        for (int k = 1; k < n; k++){
+            xk = a + k*h;
+            fxk = cursor.valueAt(xk);
+            sum += fxk;
+            if (k % 2 == 0){
+                simpsonsArea += 2 * fxk;
+                halfSum += fxk;
+            }
+            else
+                simpsonsArea += 4 * fxk;
+            graph.add(fxk);
+            if ((k & PROGRESS_MASK) == 0)
+                checkProgress((double) k / n);
+        }
+        graph.flush();
+
+        double fxn = fxValues[size-1];
+        simpsonsArea += fxn;
+
+        double trapezoidalArea = h * (fxo + 2 * sum + fxn) / 2;
+        double halfTrapezoidalArea = 2*h * (fxo + 2 * halfSum + fxn) / 2;
+        simpsonsArea = h * simpsonsArea / 3;
+        functionEvaluations = n + 1;
+
+        store(trapezoidalKey, trapezoidalArea);
+        store(simpsonsKey, endRun(event, IntegrationRule.SIMPSONS, n, simpsonsArea));
+        CombinedArea area = new CombinedArea(trapezoidalArea, simpsonsArea, halfTrapezoidalArea);
+        errorEstimate = area.getErrorEstimate();
+        return area;
+    }
+
+    // Same as integrate, but the sub-intervals are split into chunks that are summed on a pool of the given number of
+    // threads. Chunk sums are combined pairwise, so the area is identical for any parallelism
+    public double integrateParallel(int n, double h, boolean trapRule, int parallelism){
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive.");
+        IntegrationRule rule = (trapRule) ? IntegrationRule.TRAPEZOIDAL : IntegrationRule.SIMPSONS;
+        ResultCache.Key key = cacheKey(rule, n, h, 0, kernelName());
+        ResultCache.Entry cached = lookUp(key);
+        if (cached != null)
+            return restore(cached);
+
+        IntegrationEvent event = beginRun();
+        functionEvaluations = n + 1;
+        resetGridPlot(n, h);
+
+        int chunks = chunkCount(n);
+        double sum = 0;
+        completedPoints.set(0);
+        if (chunks > 0){
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                sum = pool.invoke(new ChunkSum(n, h, trapRule, 0, chunks));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return store(key, endRun(event, rule, n, chunkedArea(n, h, trapRule, sum)));
+    }
+
+    // Adaptive Simpson's Rule over [a, b]. Intervals are halved only where the difference between Simpson's Rule on the
+    // interval and on its two halves exceeds the tolerance, so the evaluations concentrate where f changes quickly. The
+    // tolerance must be at least 1e-15 times (b - a)·max|f|, below which rounding errors dominate
+    public double integrateAdaptive(double tolerance){
+        double a = xValues[0], b = xValues[size-1], scale = 0, minimumWidth = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++){
+            scale = Math.max(scale, Math.abs(fxValues[i]));
+            if (i > 0 && xValues[i] > xValues[i-1])
+                minimumWidth = Math.min(minimumWidth, xValues[i] - xValues[i-1]);
+        }
+        if (!(tolerance > 0))
+            throw new IllegalArgumentException("Tolerance must be positive.");
+        if (tolerance < MIN_RELATIVE_TOLERANCE * scale * (b - a))
+            throw new IllegalArgumentException("Tolerance is too small for the scale of the data.");
+
+        ResultCache.Key key = cacheKey(IntegrationRule.ADAPTIVE_SIMPSONS, 0, tolerance, MAX_ADAPTIVE_DEPTH, "");
+        ResultCache.Entry cached = lookUp(key);
+        if (cached != null)
+            return restore(cached);
+
+        IntegrationEvent event = beginRun();
+        double m = (a + b) / 2;
+        double fa = fxValues[0], fm = getFunctionValue(m), fb = fxValues[size-1];
+        functionEvaluations = 3;
+
+        double area = adaptiveSimpson(a, b, fa, fm, fb, (b - a) * (fa + 4*fm + fb) / 6, tolerance, MAX_ADAPTIVE_DEPTH,
+                minimumWidth);
+
+        addGraphPoints(a, b);
+        return store(key, endRun(event, IntegrationRule.ADAPTIVE_SIMPSONS, functionEvaluations - 1, area));
+    }
+
+    // Romberg integration over [a, b] starting from the Trapezoidal Rule with n sub-intervals. Each level halves h and
+    // only evaluates the new midpoints, reusing the previous trapezoid sum for the rest, and Richardson extrapolation
+    // fills a row of the tableau. Stops when consecutive diagonal entries differ by at most the tolerance or after the
+    // given number of levels, and returns the last diagonal entry
+    public double integrateRomberg(int n, double tolerance, int maxLevels){
+        if (n < 1 || maxLevels < 1)
+            throw new IllegalArgumentException("N and the number of levels must be positive.");
+        ResultCache.Key key = cacheKey(IntegrationRule.ROMBERG, n, tolerance, maxLevels, "");
+        ResultCache.Entry cached = lookUp(key);
+        if (cached != null)
+            return restore(cached);
+
+        IntegrationEvent event = beginRun();
+
+        double a = xValues[0], b = xValues[size-1], h = (b - a) / n, sum = 0;
+        double[][] tableau = new double[maxLevels][];
+
+        // Level 0: Trapezoidal Rule with n sub-intervals
+        GridCursor cursor = new GridCursor(xValues, fxValues, locator, metrics, interpolator);
+        for (int k = 1; k < n; k++){
+            sum += cursor.valueAt(a + k*h);
+            if ((k & PROGRESS_MASK) == 0)
+                checkProgress(0);
+        }
+        tableau[0] = new double[]{h * (fxValues[0] + 2 * sum + fxValues[size-1]) / 2};
+        functionEvaluations = n + 1;
+
+        int levels = 1;
+        long intervals = n;
+        while (levels < maxLevels && intervals <= Long.MAX_VALUE / 2){
+            // Midpoints of the previous level's sub-intervals
+            h /= 2;
+            sum = 0;
+            cursor.reset();
+            for (long i = 0; i < intervals; i++){
+                sum += cursor.valueAt(a + (2*i + 1)*h);
+                if ((i & PROGRESS_MASK) == 0)
+                    checkProgress((double) levels / maxLevels);
+            }
+            functionEvaluations += intervals;
+            intervals *= 2;
+
+            double[] previous = tableau[levels - 1], row = new double[levels + 1];
+            row[0] = previous[0] / 2 + h * sum;
+            for (int k = 1; k <= levels; k++){
+                double factor = Math.pow(4, k) - 1;
+                row[k] = row[k-1] + (row[k-1] - previous[k-1]) / factor;
+            }
+            tableau[levels++] = row;
+
+            if (Math.abs(row[levels - 1] - previous[levels - 2]) <= tolerance)
+                break;
+        }
+        rombergTableau = Arrays.copyOf(tableau, levels);
+
+        addGraphPoints(a, b);
+        return store(key, endRun(event, IntegrationRule.ROMBERG, intervals, rombergTableau[levels - 1][levels - 1]));
+    }
+
+    // Composite Gauss-Legendre rule of the given order over n equal panels of [a, b]. The rule is exact for polynomials of
+    // degree 2·order - 1, so far fewer evaluations than the Trapezoidal or Simpson's Rule reach the same accuracy
+    public double integrateGaussLegendre(int n, int order){
+        if (n < 1)
+            throw new IllegalArgumentException("N must be positive.");
+        double[][] rule = GaussRules.legendre(order);
+        ResultCache.Key key = cacheKey(IntegrationRule.GAUSS_LEGENDRE, n, 0, order, "");
+        ResultCache.Entry cached = lookUp(key);
+        if (cached != null)
+            return restore(cached);
+
+        IntegrationEvent event = beginRun();
+        double area = gaussSum(n, rule[0], rule[1], null);
+        functionEvaluations = (long) n * order;
+
+        addGraphPoints(xValues[0], xValues[size-1]);
+        return store(key, endRun(event, IntegrationRule.GAUSS_LEGENDRE, n, area));
+    }
+
+    // Composite 15-point Gauss-Kronrod rule over n equal panels of [a, b]. The 7-point Gauss rule reuses every other
+    // node, and the sum of the differences between the two rules on each panel is kept as an estimate of the error
+    public double integrateGaussKronrod(int n){
+        if (n < 1)
+            throw new IllegalArgumentException("N must be positive.");
+        ResultCache.Key key = cacheKey(IntegrationRule.GAUSS_KRONROD, n, 0, 0, "");
+        ResultCache.Entry cached = lookUp(key);
+        if (cached != null)
+            return restore(cached);
+
+        IntegrationEvent event = beginRun();
+        double[] gaussArea = new double[1];
+        double area = gaussSum(n, GaussRules.KRONROD_NODES, GaussRules.KRONROD_WEIGHTS, gaussArea);
+        errorEstimate = gaussArea[0];
+        functionEvaluations = (long) n * GaussRules.KRONROD_NODES.length;
+
+        addGraphPoints(xValues[0], xValues[size-1]);
+        return store(key, endRun(event, IntegrationRule.GAUSS_KRONROD, n, area));
+    }
+
+    // Estimate of the absolute error of the last Gauss-Kronrod or combined integration
+    public double getErrorEstimate(){
+        return errorEstimate;
+    }
+
+    // Integrates the samples themselves in one pass, without a grid or interpolation, so it needs no n or h and works
+    // for any spacing. The Trapezoidal Rule joins consecutive samples with lines. Simpson's Rule fits a parabola to
+    // each pair of intervals with the weights for unequal widths, and when the number of intervals is odd, the last
+    // interval is integrated on the parabola through the last 3 samples
+    public double integrateSamples(boolean trapRule){
+        IntegrationRule rule = (trapRule) ? IntegrationRule.SAMPLE_TRAPEZOIDAL : IntegrationRule.SAMPLE_SIMPSONS;
+        ResultCache.Key key = cacheKey(rule, 0, 0, 0, "");
+        ResultCache.Entry cached = lookUp(key);
+        if (cached != null)
+            return restore(cached);
+
+        IntegrationEvent event = beginRun();
+        double area = (trapRule) ? sampleTrapezoidalRule() : sampleSimpsonsRule();
+        functionEvaluations = size;
+
+        addGraphPoints(xValues[0], xValues[size-1]);
+        return store(key, endRun(event, rule, size - 1, area));
+    }
+
+    // Index answering area queries over sub-ranges of the data set, built on the first call
+    public CumulativeIntegral getCumulativeIntegral(){
+        if (cumulativeIntegral == null)
+            cumulativeIntegral = new CumulativeIntegral(xValues, fxValues, locator);
+        return cumulativeIntegral;
+    }
+
+    // Rows of the tableau of the last Romberg integration. Row j holds the Trapezoidal Rule with n·2^j sub-intervals
+    // followed by its j Richardson extrapolations
+    public double[][] getRombergTableau(){
+        return rombergTableau;
+    }
+
+    // Number of times f was evaluated by the last adaptive or Romberg integration
+    public long getFunctionEvaluations(){
+        return functionEvaluations;
+    }
+
+    // Counters and timings of the last integration
+    public IntegrationMetrics getMetrics(){
+        return metrics;
+    }
+
+    // Interpolant evaluated between the samples by the following integrations, quadratic Lagrange interpolation by
+    // default. The rules over the samples and the cumulative integral do not interpolate and are not affected
+    public void setInterpolator(Interpolator interpolator){
+        this.interpolator = interpolator;
+    }
+
+    // Results of the following integrations are looked up in, and added to, the cache. Null disables caching
+    public void setCache(ResultCache cache){
+        this.cache = cache;
+    }
+
+    // Receives the progress of the following integrations, which stop with a CancellationException once it is cancelled
+    public void setProgress(IntegrationProgress progress){
+        this.progress = progress;
+    }
+
+    // When enabled, the weighted sums are computed in blocks by the vector kernel if the JVM provides the
+    // jdk.incubator.vector module, and by the scalar kernel otherwise. The default is set by -Dintegration.vector
+    public void setVectorized(boolean vectorized){
+        kernel = (vectorized) ? WeightedSumKernels.best() : WeightedSumKernels.SCALAR;
+    }
+
+    private static int chunkCount(int n){
+        return (n > 1) ? (n - 2) / CHUNK_SIZE + 1 : 0;
+    }
+
+    // Adds the end points to the weighted sum of the interior points computed in chunks
+    private double chunkedArea(int n, double h, boolean trapRule, double sum){
+        double a = xValues[0], b = xValues[size-1], fxo = fxValues[0], fxn = fxValues[size-1];
         if (trapRule)
-            return trapezoidalRule(n, h);
+            return h * (fxo + 2 * sum + fxn) / 2;
         else
-            return simpsonsRule(n, h);
+            return h * (fxo + sum + fxn) / 3;
     }
+
     private double trapezoidalRule(int n, double h){
-        double area = 0, sum = 0, a = xValues.get(0), b = xValues.get(size-1), fxk, xk;
+        double area = 0, sum = 0, a = xValues[0], fxk, xk;
+        GridCursor cursor = new GridCursor(xValues, fxValues, locator, metrics, interpolator);
+        GridPlot graph = new GridPlot(a, h);
 
         // Increment f(xo)
-        double fxo = fxValues.get(0);
+        double fxo = fxValues[0];
 
         area += fxo;
-        xGraphValues.add(Math.round(a * 100)/100.0);
-        fxGraphValues.add(Math.round(fxo * 100)/100.0);
 
         // Increment 2 * ∑(fxi) for i ∈ [1, N-1]
-        for (double k = 1; k < n; k++){
+        for (int k = 1; k < n; k++){
             xk = a + k*h;
-            if (xValues.contains(xk))
-                fxk = fxValues.get(xValues.indexOf(xk));
-            else
-                fxk = getFunctionValue(xk);
-
+            fxk = cursor.valueAt(xk);
             sum += fxk;
-
-            if (k % modulusDividend == 0){
-                xGraphValues.add(Math.round(xk * 100)/100.0);
-                fxGraphValues.add(Math.round(fxk * 100)/100.0);
-            }
+            graph.add(fxk);
+            if ((k & PROGRESS_MASK) == 0)
+                checkProgress((double) k / n);
         }
+        graph.flush();
 
         area += 2 * sum;
 
         // Increment f(xn)
-        double fxn = fxValues.get(size-1);
+        double fxn = fxValues[size-1];
         area += fxn;
-        xGraphValues.add(Math.round(b * 100)/100.0);
-        fxGraphValues.add(Math.round(fxn * 100)/100.0);
         return h * area / 2;
     }
     private double simpsonsRule(int n, double h){
-        double area = 0, a = xValues.get(0), b = xValues.get(size-1), fxk, xk;
+        double area = 0, a = xValues[0], fxk, xk;
         int scalar;
+        GridCursor cursor = new GridCursor(xValues, fxValues, locator, metrics, interpolator);
+        GridPlot graph = new GridPlot(a, h);
 
         // Increment f(a)
-        double fxo = fxValues.get(0);
+        double fxo = fxValues[0];
 
         area += fxo;
-        xGraphValues.add(Math.round(a * 100)/100.0);
-        fxGraphValues.add(Math.round(fxo * 100)/100.0);
 
         // Increment 2 * ∑(fx2k) for i ∈ [1, (N-2)-1]
-        for (double k = 1; k < n; k++){
+        for (int k = 1; k < n; k++){
             xk = a + k*h;
             scalar = (k % 2 == 0) ? 2 : 4;
-
-            if (xValues.contains(xk))
-                fxk = fxValues.get(xValues.indexOf(xk));
-            else
-                fxk = getFunctionValue(xk);
+            fxk = cursor.valueAt(xk);
 
             area += scalar * fxk;
-            
-            if (k % modulusDividend == 0){
-                xGraphValues.add(Math.round(xk * 100)/100.0);
-                fxGraphValues.add(Math.round(fxk * 100)/100.0);
-            }
+            graph.add(fxk);
+            if ((k & PROGRESS_MASK) == 0)
+                checkProgress((double) k / n);
         }
+        graph.flush();
 
         // Increment f(b)
-        double fxn = fxValues.get(size-1);
+        double fxn = fxValues[size-1];
 
         area += fxn;
-        xGraphValues.add(Math.round(b * 100)/100.0);
-        fxGraphValues.add(Math.round(fxn * 100)/100.0);
 
         return h * area / 3;
     }
 
-    // Function will return the fx value of the x value entered. Quadratic interpolation is performed when necessary,
-    private double getFunctionValue(double x){
-        if (xValues.contains(x))
-            return fxValues.get(xValues.indexOf(x));
+    // Sums a rule on [-1, 1] mapped onto each of n equal panels. The nodes are ascending, so the evaluations move forward
+    // and the cursor finds each interval in a few steps. When error is not null, the panels are also summed with the
+    // Gauss weights and error[0] receives the sum of the absolute differences
+    private double gaussSum(int n, double[] nodes, double[] weights, double[] error){
+        double a = xValues[0], width = (xValues[size-1] - a) / n, half = width / 2, area = 0, difference = 0;
+        GridCursor cursor = new GridCursor(xValues, fxValues, locator, metrics, interpolator);
+
+        for (int panel = 0; panel < n; panel++){
+            double middle = a + (panel + 0.5) * width, sum = 0, gaussSum = 0, fx;
+            for (int i = 0; i < nodes.length; i++){
+                fx = cursor.valueAt(middle + half * nodes[i]);
+                sum += weights[i] * fx;
+                if (error != null)
+                    gaussSum += GaussRules.GAUSS_7_WEIGHTS[i] * fx;
+            }
+            area += half * sum;
+            if (error != null)
+                difference += Math.abs(half * (sum - gaussSum));
+            if ((panel & PROGRESS_MASK) == 0)
+                checkProgress((double) panel / n);
+        }
+        if (error != null)
+            error[0] = difference;
+        return area;
+    }
+
+    private double sampleTrapezoidalRule(){
+        double sum = 0;
+        for (int i = 0; i < size - 1; i++){
+            sum += (xValues[i+1] - xValues[i]) * (fxValues[i] + fxValues[i+1]);
+            if ((i & PROGRESS_MASK) == 0)
+                checkProgress((double) i / size);
+        }
+        return sum / 2;
+    }
+
+    private double sampleSimpsonsRule(){
+        double sum = 0, h0, h1;
+        int intervals = size - 1;
+
+        // Pairs of intervals [x(i), x(i+2)]
+        for (int i = 0; i + 2 <= intervals; i += 2){
+            h0 = xValues[i+1] - xValues[i];
+            h1 = xValues[i+2] - xValues[i+1];
+            sum += (h0 + h1) / 6 * ((2 - h1 / h0) * fxValues[i]
+                    + (h0 + h1) * (h0 + h1) / (h0 * h1) * fxValues[i+1]
+                    + (2 - h0 / h1) * fxValues[i+2]);
+            if ((i & PROGRESS_MASK) == 0)
+                checkProgress((double) i / size);
+        }
+
+        // Last interval left over when the number of intervals is odd
+        if (intervals % 2 == 1){
+            h0 = xValues[size-2] - xValues[size-3];
+            h1 = xValues[size-1] - xValues[size-2];
+            sum += (2 * h1 * h1 + 3 * h0 * h1) / (6 * (h0 + h1)) * fxValues[size-1]
+                    + (h1 * h1 + 3 * h0 * h1) / (6 * h0) * fxValues[size-2]
+                    - h1 * h1 * h1 / (6 * h0 * (h0 + h1)) * fxValues[size-3];
+        }
+        return sum;
+    }
+
+    // Returns the area over [a, b] given f at a, the midpoint and b, and Simpson's Rule on the whole interval
+    private double adaptiveSimpson(double a, double b, double fa, double fm, double fb, double whole, double tolerance,
+                                   int depth, double minimumWidth){
+        double m = (a + b) / 2, leftMiddle = (a + m) / 2, rightMiddle = (m + b) / 2;
+        double flm = getFunctionValue(leftMiddle), frm = getFunctionValue(rightMiddle);
+        functionEvaluations += 2;
+        if (progress.isCancelled())
+            throw new CancellationException();
+
+        double left = (m - a) * (fa + 4*flm + fm) / 6, right = (b - m) * (fm + 4*frm + fb) / 6;
+        double error = left + right - whole;
+
+        // The error of the halves is about 1/15 of the difference, which is also added as a correction
+        if (Math.abs(error) <= 15 * tolerance || depth == 0 || functionEvaluations >= MAX_ADAPTIVE_EVALUATIONS
+                || b - a < minimumWidth || leftMiddle <= a || rightMiddle >= b || !(a < m && m < b))
+            return left + right + error / 15;
+        return adaptiveSimpson(a, m, fa, flm, fm, left, tolerance / 2, depth - 1, minimumWidth)
+                + adaptiveSimpson(m, b, fm, frm, fb, right, tolerance / 2, depth - 1, minimumWidth);
+    }
+
+    // Clears what the previous run left, so that it is not reported, or cached, as part of this one. Each rule sets
+    // its own evaluation count and error estimate
+    private IntegrationEvent beginRun(){
+        functionEvaluations = 0;
+        errorEstimate = Double.NaN;
+        IntegrationEvent event = new IntegrationEvent();
+        event.begin();
+        metrics.begin();
+        return event;
+    }
+
+    // Finishes the graph, records the run and returns its area
+    private double endRun(IntegrationEvent event, IntegrationRule rule, long subIntervals, double area){
+        long graphStart = System.nanoTime();
+        plot.size();
+        metrics.addGraphNanos(System.nanoTime() - graphStart);
+        metrics.end();
+        if (IntegrationMetrics.ENABLED)
+            IntegrationStatistics.get().add(metrics);
+
+        event.end();
+        if (event.shouldCommit()){
+            event.rule = rule.getName();
+            event.samples = size;
+            event.subIntervals = subIntervals;
+            event.area = area;
+            event.exactHits = metrics.getExactHits();
+            event.interpolations = metrics.getInterpolations();
+            event.searchSteps = metrics.getSearchSteps();
+            event.graphTime = metrics.getGraphNanos();
+            event.commit();
+        }
+        return area;
+    }
+
+    // Returns null when caching is disabled. The data set is hashed once, on the first look-up
+    private ResultCache.Key cacheKey(IntegrationRule rule, long n, double parameter, int levels, String variant){
+        if (cache == null)
+            return null;
+        if (!fingerprinted){
+            fingerprint = ResultCache.fingerprint(xValues, fxValues);
+            fingerprinted = true;
+        }
+        return new ResultCache.Key(fingerprint, size, rule, n, parameter, levels,
+                variant + "/" + interpolator.getName());
+    }
+
+    private ResultCache.Entry lookUp(ResultCache.Key key){
+        return (key == null) ? null : cache.get(key);
+    }
+
+    // Makes this object look as if it had just computed the cached result
+    private double restore(ResultCache.Entry entry){
+        functionEvaluations = entry.getFunctionEvaluations();
+        errorEstimate = entry.getErrorEstimate();
+        double[][] tableau = entry.getRombergTableau();
+        if (tableau != null)
+            rombergTableau = tableau;
+        entry.restorePlot(plot);
+        return entry.getArea();
+    }
+
+    private double store(ResultCache.Key key, double area){
+        if (key != null){
+            double[][] tableau = (key.isRomberg()) ? rombergTableau : null;
+            cache.put(key, new ResultCache.Entry(area, functionEvaluations, tableau, errorEstimate, plot));
+        }
+        return area;
+    }
+
+    // The summation order of the chunked modes depends on the kernel
+    private String kernelName(){
+        return kernel.getClass().getSimpleName();
+    }
+
+    // Variant of the cache key of integrate, and integrateRows, with the kernel: the scalar loop or the chunked mode
+    static String gridVariant(WeightedSumKernel kernel){
+        return (kernel == WeightedSumKernels.SCALAR) ? "loop" : kernel.getClass().getSimpleName();
+    }
+
+    private void checkProgress(double fraction){
+        if (progress.isCancelled())
+            throw new CancellationException();
+        progress.update(fraction);
+    }
+
+    // Spreads the plot over the range a grid rule integrates, [a, a + n·h], and adds the end points the rule uses. The
+    // points in between are fed from the evaluation loop
+    private void resetGridPlot(int n, double h){
+        long start = System.nanoTime();
+        double a = xValues[0];
+        plot.reset(a, a + n*h);
+        plot.add(a, fxValues[0]);
+        plot.add(xValues[size-1], fxValues[size-1]);
+        metrics.addGraphNanos(System.nanoTime() - start);
+    }
+
+    // Feeds evaluated grid points to the plot and counts the time as graph time. Chunks summed on different threads
+    // take turns, so their plotting times add up to no more than the time of the run
+    private void plotGrid(double[] values, int length, double a, int firstK, double h){
+        synchronized (plot){
+            long start = System.nanoTime();
+            plot.addAll(values, length, a, firstK, h);
+            metrics.addGraphNanos(System.nanoTime() - start);
+        }
+    }
+
+    // Buffers the points of a scalar loop, from k = 1 on, and plots them a chunk at a time so that the loop is not
+    // timed point by point
+    private final class GridPlot {
+        private final double[] values = new double[CHUNK_SIZE];
+        private final double a;
+        private final double h;
+        private int length;
+        private int firstK = 1;
+
+        GridPlot(double a, double h){
+            this.a = a;
+            this.h = h;
+        }
+
+        void add(double fx){
+            values[length++] = fx;
+            if (length == CHUNK_SIZE)
+                flush();
+        }
+
+        void flush(){
+            plotGrid(values, length, a, firstK, h);
+            firstK += length;
+            length = 0;
+        }
+    }
+
+    // Graph points of the rules that do not walk a uniform grid, added after the area over [a, b]. Sparse data sets are
+    // sampled twice per pixel column so that the interpolating parabolas show, dense ones are plotted at their samples.
+    // The samples are located with the run's locator, whose search steps are counted with the run's
+    private void addGraphPoints(double a, double b){
+        long start = System.nanoTime();
+        plot.reset(a, b);
+        if (size - 1 > 2 * PlotDecimator.DEFAULT_WIDTH){
+            for (int i = 0; i < size; i++)
+                plot.add(xValues[i], fxValues[i]);
+        }
         else{
-            int firstIndexOfSubset = getFirstIndexOfSubset(x);
-            ArrayList<Double> newXVec = new ArrayList<>(xValues.subList(firstIndexOfSubset, firstIndexOfSubset+3));
-            ArrayList<Double> newFXVec = new ArrayList<>(fxValues.subList(firstIndexOfSubset, firstIndexOfSubset+3));
-            return lagrangeInterpolation(newXVec, newFXVec, x);
-        }
-    }
-
-    // Gets the first index of the subset of 3 data points for quadratic interpolation
-    private int getFirstIndexOfSubset(double x){
-        if (xValues.size() >= 3){
-            int n = xValues.size();
-
-            if (x < xValues.get(0))
-                return 0;
-            if (x > xValues.get(n-1))
-                return n-3;
-
-            int index = 0;
-            double leftVal, rightVal;
-            for (int i = 0; i < n-1; i++){
-                leftVal = xValues.get(i);
-                rightVal = xValues.get(i+1);
-                if (leftVal < x && x < rightVal){
-                    if (i+2 < n)
-                        index = i;
-                    else
-                        index = i-1;
-                    break;
-                }
+            int n = 2 * PlotDecimator.DEFAULT_WIDTH, index = 0;
+            double h = (b - a) / n, x, fx;
+            plot.add(a, fxValues[0]);
+            for (int k = 1; k < n; k++){
+                x = a + k*h;
+                index = locator.lowerBound(x, index);
+                fx = (index < size && xValues[index] == x) ? fxValues[index] : interpolator.interpolate(index, x);
+                plot.add(x, fx);
             }
-            return index;
+            plot.add(b, fxValues[size-1]);
         }
-        else
-            return -1;
+        metrics.addGraphNanos(System.nanoTime() - start);
+    }
+
+    // Function will return the fx value of the x value entered. The interpolator is used when necessary
+    double getFunctionValue(double x){
+        int index = locator.lowerBound(x);
+
+        if (index < size && xValues[index] == x){
+            if (IntegrationMetrics.ENABLED)
+                metrics.exactHit();
+            return fxValues[index];
+        }
+        if (IntegrationMetrics.ENABLED)
+            metrics.interpolation();
+        return interpolator.interpolate(index, x);
+    }
+
+    // Converts the index of the first sample not smaller than x into the first index of the subset of 3 data points
+    // surrounding x. Points outside the data set use the first or last 3 data points
+    static int firstIndexOfSubset(int lowerBound, int size){
+        return Math.max(0, Math.min(lowerBound - 1, size - 3));
     }
 
-    // Lagrange Interpolation Algorithm
-    private double lagrangeInterpolation(ArrayList<Double> xCoords, ArrayList<Double> yCoords, double x){
-        int n = xCoords.size();
-        double interpolatedValue = 0, lagrangian, xi, xj;
+    // Lagrange Interpolation Algorithm over the 3 data points starting at the index entered
+    static double lagrangeInterpolation(double[] xCoords, double[] yCoords, int first, double x){
+        double interpolatedValue = 0, lagrangian, xi;
 
-        for (int i = 0; i < n; i++){
+        for (int i = first; i < first + 3; i++){
             lagrangian = 1;
-            xi = xCoords.get(i);
-            for (int j = 0; j < n; j++){
-                if (i != j){
-                    xj = xCoords.get(j);
-                    lagrangian *= (x - xj)/(xi - xj);
-                }
+            xi = xCoords[i];
+            for (int j = first; j < first + 3; j++){
+                if (i != j)
+                    lagrangian *= (x - xCoords[j])/(xi - xCoords[j]);
             }
-            interpolatedValue += lagrangian * yCoords.get(i);
+            interpolatedValue += lagrangian * yCoords[i];
         }
         return interpolatedValue;
     }
 
-    public ArrayList<Double> getxGraphValues() {
-        return xGraphValues;
+    // Evaluates the grid points of a chunk into the buffer and returns their weighted sum
+    private double chunkSum(int n, double h, boolean trapRule, int chunk, double[] buffer){
+        GridCursor cursor = new GridCursor(xValues, fxValues, locator, metrics, interpolator);
+        int start = 1 + chunk * CHUNK_SIZE, length = Math.min(n - start, CHUNK_SIZE);
+        double a = xValues[0];
+
+        if (progress.isCancelled())
+            throw new CancellationException();
+        for (int i = 0; i < length; i++)
+            buffer[i] = cursor.valueAt(a + (start + i)*h);
+        plotGrid(buffer, length, a, start, h);
+        progress.update((double) completedPoints.addAndGet(length) / n);
+        return kernel.weightedSum(buffer, length, start, trapRule);
+    }
+
+    // Trapezoidal or Simpson's Rule over rows of samples of several functions at the same x values, in one walk over
+    // the grid: each grid point is located, and the weights the interpolant gives the samples around it are computed,
+    // once for all the rows. With the scalar kernel each row is summed in the order of the scalar loop, with any other
+    // kernel chunk by chunk and pairwise as in the chunked mode, so each area is the one integrate computes for that
+    // row with the same interpolant and kernel. Each plot, when given, receives the grid points of its row
+    static double[] integrateRows(double[] xValues, double[][] rows, IntervalLocator locator,
+                                  LocalInterpolator interpolator, WeightedSumKernel kernel, int n, double h,
+                                  boolean trapRule, PlotDecimator[] plots){
+        int size = xValues.length, rowCount = rows.length, span = interpolator.span(), index = 0, first, weight;
+        int length = 0, firstK;
+        boolean chunked = kernel != WeightedSumKernels.SCALAR, exact;
+        double a = xValues[0], xk, value;
+        double[] weights = new double[span], sums = new double[rowCount], row;
+        double[][] buffers = (chunked || plots != null) ? new double[rowCount][CHUNK_SIZE] : null;
+        double[][] chunkSums = (chunked) ? new double[rowCount][chunkCount(n)] : null;
+
+        // The scalar loop of Simpson's Rule starts its running sum at f(a)
+        if (!chunked && !trapRule){
+            for (int r = 0; r < rowCount; r++)
+                sums[r] = rows[r][0];
+        }
+        if (plots != null){
+            for (int r = 0; r < rowCount; r++){
+                plots[r].reset(a, a + n*h);
+                plots[r].add(a, rows[r][0]);
+                plots[r].add(xValues[size-1], rows[r][size-1]);
+            }
+        }
+
+        for (int k = 1; k < n; k++){
+            xk = a + k*h;
+            weight = (trapRule) ? 1 : (k % 2 == 0) ? 2 : 4;
+            index = locator.lowerBound(xk, index);
+            exact = index < size && xValues[index] == xk;
+            first = (exact) ? index : interpolator.weights(index, xk, weights);
+
+            for (int r = 0; r < rowCount; r++){
+                row = rows[r];
+                if (exact)
+                    value = row[index];
+                else{
+                    value = 0;
+                    for (int i = 0; i < span; i++)
+                        value += weights[i] * row[first + i];
+                }
+                if (buffers != null)
+                    buffers[r][length] = value;
+                if (!chunked)
+                    sums[r] += weight * value;
+            }
+
+            // A full chunk, or the last one, is summed by the kernel and plotted
+            if (buffers != null && (++length == CHUNK_SIZE || k == n - 1)){
+                firstK = k - length + 1;
+                for (int r = 0; r < rowCount; r++){
+                    if (chunked)
+                        chunkSums[r][(firstK - 1) / CHUNK_SIZE] = kernel.weightedSum(buffers[r], length, firstK,
+                                trapRule);
+                    if (plots != null)
+                        plots[r].addAll(buffers[r], length, a, firstK, h);
+                }
+                length = 0;
+            }
+        }
+
+        double[] areas = new double[rowCount];
+        for (int r = 0; r < rowCount; r++){
+            double fxo = rows[r][0], fxn = rows[r][size-1];
+            double sum = (chunked) ? pairwiseSum(chunkSums[r], 0, chunkSums[r].length) : sums[r];
+            if (trapRule)
+                areas[r] = h * (fxo + 2 * sum + fxn) / 2;
+            else if (chunked)
+                areas[r] = h * (fxo + sum + fxn) / 3;
+            else
+                areas[r] = h * (sum + fxn) / 3;
+        }
+        return areas;
+    }
+
+    // Sum of the chunk sums [first, last), halving the range and combining pairwise like pairwiseSum
+    private static double pairwiseSum(double[] chunkSums, int first, int last){
+        if (last - first == 0)
+            return 0;
+        if (last - first == 1)
+            return chunkSums[first];
+
+        int middle = (first + last) >>> 1;
+        return pairwiseSum(chunkSums, first, middle) + pairwiseSum(chunkSums, middle, last);
+    }
+
+    // Weighted sum over the chunks [first, last) on the current thread, halving the range and combining pairwise
+    private double pairwiseSum(int n, double h, boolean trapRule, int first, int last, double[] buffer){
+        if (last - first == 0)
+            return 0;
+        if (last - first == 1)
+            return chunkSum(n, h, trapRule, first, buffer);
+
+        int middle = (first + last) >>> 1;
+        return pairwiseSum(n, h, trapRule, first, middle, buffer) + pairwiseSum(n, h, trapRule, middle, last, buffer);
+    }
+
+    // Same as pairwiseSum, but the halves are summed by separate tasks
+    private class ChunkSum extends RecursiveTask<Double> {
+        private final int n;
+        private final double h;
+        private final boolean trapRule;
+        private final int first;
+        private final int last;
+
+        ChunkSum(int n, double h, boolean trapRule, int first, int last){
+            this.n = n;
+            this.h = h;
+            this.trapRule = trapRule;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected Double compute(){
+            if (last - first == 1)
+                return chunkSum(n, h, trapRule, first, new double[CHUNK_SIZE]);
+
+            int middle = (first + last) >>> 1;
+            ChunkSum left = new ChunkSum(n, h, trapRule, first, middle);
+            left.fork();
+            double right = new ChunkSum(n, h, trapRule, middle, last).compute();
+            return left.join() + right;
+        }
+    }
+
+    private static double[] toArray(ArrayList<Double> values){
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = values.get(i);
+        return array;
     }
-    public ArrayList<Double> getfxGraphValues() {
-        return fxGraphValues;
+
+    // Decimated points of the interpolant evaluated by the last integration
+    public PlotDecimator getPlot() {
+        return plot;
     }
 }
@@ -0,0 +1,234 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Reads "x,f(x)" files on several threads. The file is split into byte ranges whose boundaries are moved to the start
+// of the next line, each range is memory-mapped and parsed into its own primitive buffers, and the buffers are joined
+// in file order. Lines end at \n, \r or \r\n like Scanner.nextLine, every line goes through the same validation as a
+// single-threaded read, and the first invalid line of the file is the one reported.
+final class ParallelDataReader {
+    // Ranges are at most this long, so that each can be mapped at once
+    private static final long MAX_RANGE = 1L << 30;
+
+    // Files below this size are read as a single range
+    private static final long MIN_RANGE = 1L << 20;
+
+    private ParallelDataReader(){
+    }
+
+    static Dataset read(File file, int threads) throws FileNotFoundException, IllegalFileContentsException, InsufficientDataException {
+        if (!file.isFile())
+            throw new FileNotFoundException(file.getPath());
+
+        Range[] ranges;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            ranges = split(channel, Math.max(1, threads));
+            if (ranges.length == 1)
+                ranges[0].call();
+            else{
+                ForkJoinPool pool = new ForkJoinPool(Math.min(threads, ranges.length));
+                try {
+                    List<Future<Range>> futures = pool.invokeAll(List.of(ranges));
+                    for (Future<Range> future : futures)
+                        future.get();
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } catch (IOException | ExecutionException exception) {
+            throw new IllegalFileContentsException();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalFileContentsException();
+        }
+
+        // Line numbers of a range are counted from its start, so the lines of the ranges before it are added
+        long lines = 0;
+        int size = 0;
+        for (Range range : ranges){
+            if (range.invalidLine > 0)
+                throw new IllegalFileContentsException(lines + range.invalidLine);
+            lines += range.lines;
+            size += range.xValues.size();
+        }
+        // Data set must contain at least 3 data points
+        if (size < 3)
+            throw new InsufficientDataException();
+
+        double[] xValues = new double[size], fxValues = new double[size];
+        int offset = 0;
+        for (Range range : ranges){
+            range.xValues.copyTo(xValues, offset);
+            range.fxValues.copyTo(fxValues, offset);
+            offset += range.xValues.size();
+        }
+        return new Dataset(xValues, fxValues);
+    }
+
+    // Splits the file into about equal ranges that start at the beginning of a line
+    private static Range[] split(FileChannel channel, int threads) throws IOException {
+        long length = channel.size();
+        int count = (int) Math.max(1, Math.min(threads, length / MIN_RANGE));
+        count = (int) Math.max(count, (length + MAX_RANGE - 1) / MAX_RANGE);
+
+        FailedRange failed = new FailedRange();
+        Range[] ranges = new Range[count];
+        long start = 0;
+        for (int i = 0; i < count; i++){
+            long end = (i == count - 1) ? length : Math.max(start, lineStart(channel, length * (i + 1) / count, length));
+            ranges[i] = new Range(channel, i, start, end, failed);
+            start = end;
+        }
+        return ranges;
+    }
+
+    // Returns the start of the first line at or after the position
+    private static long lineStart(FileChannel channel, long position, long length) throws IOException {
+        if (position <= 0 || position >= length)
+            return Math.min(Math.max(position, 0), length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        long offset = position - 1;
+        boolean carriageReturn = false;
+        while (offset < length){
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0)
+                break;
+            for (int i = 0; i < read; i++){
+                byte c = buffer.get(i);
+                // A \r may be the first half of \r\n, in which case the line starts after the \n
+                if (carriageReturn)
+                    return offset + i + ((c == '\n') ? 1 : 0);
+                if (c == '\n')
+                    return offset + i + 1;
+                carriageReturn = c == '\r';
+            }
+            offset += read;
+        }
+        return length;
+    }
+
+    // Index of the first range with an invalid line, so that the ranges after it stop early
+    private static final class FailedRange {
+        private volatile int index = Integer.MAX_VALUE;
+
+        synchronized void fail(int range){
+            index = Math.min(index, range);
+        }
+    }
+
+    // Parses the lines of [start, end) into its own buffers
+    private static final class Range implements Callable<Range>, CharSequence {
+        // Lines parsed between checks of the other ranges
+        private static final int CHECK_MASK = (1 << 14) - 1;
+
+        private final FileChannel channel;
+        private final int index;
+        private final long start;
+        private final long end;
+        private final FailedRange failed;
+        private final DoubleList xValues;
+        private final DoubleList fxValues;
+        private MappedByteBuffer buffer;
+        private long lines;
+        private long invalidLine;
+
+        Range(FileChannel channel, int index, long start, long end, FailedRange failed){
+            this.channel = channel;
+            this.index = index;
+            this.start = start;
+            this.end = end;
+            this.failed = failed;
+            // Rows of a typical file take 20 to 40 bytes
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (end - start) / 24 + 16);
+            this.xValues = new DoubleList(capacity);
+            this.fxValues = new DoubleList(capacity);
+        }
+
+        @Override
+        public Range call() throws IOException {
+            if (end == start)
+                return this;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            int length = buffer.limit(), from = 0, comma = -1;
+            boolean multipleCommas = false;
+
+            for (int i = 0; i <= length; i++){
+                if (i < length){
+                    byte c = buffer.get(i);
+                    if (c == ','){
+                        multipleCommas |= comma != -1;
+                        comma = i;
+                        continue;
+                    }
+                    // \n after \r ends the line the \r already ended
+                    if (c == '\n' && i > 0 && buffer.get(i - 1) == '\r'){
+                        from = i + 1;
+                        continue;
+                    }
+                    if (c != '\n' && c != '\r')
+                        continue;
+                }
+                // The end of the range only ends a line that has characters
+                else if (from == length)
+                    break;
+
+                lines++;
+                if (comma == -1 || multipleCommas || !parseLine(from, comma, i)){
+                    invalidLine = lines;
+                    failed.fail(index);
+                    return this;
+                }
+                if ((lines & CHECK_MASK) == 0 && failed.index < index)
+                    return this;
+                from = i + 1;
+                comma = -1;
+                multipleCommas = false;
+            }
+            return this;
+        }
+
+        private boolean parseLine(int from, int comma, int to){
+            try {
+                double x = NumberLexer.parse(this, from, comma);
+                double fx = NumberLexer.parse(this, comma + 1, to);
+                xValues.add(x);
+                fxValues.add(fx);
+                return true;
+            } catch (NumberFormatException exception) {
+                return false;
+            }
+        }
+
+        // The mapped bytes as characters, for NumberLexer
+        @Override
+        public int length(){
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index){
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to){
+            StringBuilder builder = new StringBuilder(to - from);
+            for (int i = from; i < to; i++)
+                builder.append(charAt(i));
+            return builder;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+// Reduces a stream of (x, f(x)) points to what a line chart of the given pixel width can show. The x range is split
+// into one bucket per pixel column and each bucket keeps its first, last, lowest and highest point, so peaks and dips
+// survive no matter how many points are added. The buckets are preallocated arrays, adding a point costs a few
+// comparisons, and the result does not depend on the order in which the points are added.
+public class PlotDecimator {
+    // Width of the chart shown by the Graph button
+    public static final int DEFAULT_WIDTH = 1000;
+
+    private final int width;
+    private final double[] firstX;
+    private final double[] firstFx;
+    private final double[] lastX;
+    private final double[] lastFx;
+    private final double[] minX;
+    private final double[] minFx;
+    private final double[] maxX;
+    private final double[] maxFx;
+
+    // Decimated points in ascending order of x, rebuilt after points are added
+    private final double[] xPoints;
+    private final double[] fxPoints;
+    private int size;
+    private boolean decimated = true;
+    private double a;
+    private double b;
+    private double scale;
+
+    PlotDecimator(int width){
+        if (width < 1)
+            throw new IllegalArgumentException("Width must be positive.");
+        this.width = width;
+        firstX = new double[width];
+        firstFx = new double[width];
+        lastX = new double[width];
+        lastFx = new double[width];
+        minX = new double[width];
+        minFx = new double[width];
+        maxX = new double[width];
+        maxFx = new double[width];
+        xPoints = new double[4 * width];
+        fxPoints = new double[4 * width];
+        reset(0, 1);
+    }
+
+    // Empties the buckets and spreads them over [a, b]. Points outside the range go to the first or last bucket
+    public void reset(double a, double b){
+        this.a = a;
+        this.b = b;
+        this.scale = (b > a) ? width / (b - a) : 0;
+        Arrays.fill(firstX, Double.NaN);
+        size = 0;
+        decimated = true;
+    }
+
+    public void add(double x, double fx){
+        int bucket = (int) ((x - a) * scale);
+        if (bucket < 0 || x != x)
+            bucket = 0;
+        else if (bucket >= width)
+            bucket = width - 1;
+        decimated = false;
+
+        if (Double.isNaN(firstX[bucket])){
+            firstX[bucket] = lastX[bucket] = minX[bucket] = maxX[bucket] = x;
+            firstFx[bucket] = lastFx[bucket] = minFx[bucket] = maxFx[bucket] = fx;
+            return;
+        }
+        if (x < firstX[bucket]){
+            firstX[bucket] = x;
+            firstFx[bucket] = fx;
+        }
+        if (x > lastX[bucket]){
+            lastX[bucket] = x;
+            lastFx[bucket] = fx;
+        }
+        // Ties go to the smaller x so that the kept points do not depend on the order of the additions
+        if (fx < minFx[bucket] || (fx == minFx[bucket] && x < minX[bucket])){
+            minX[bucket] = x;
+            minFx[bucket] = fx;
+        }
+        if (fx > maxFx[bucket] || (fx == maxFx[bucket] && x < maxX[bucket])){
+            maxX[bucket] = x;
+            maxFx[bucket] = fx;
+        }
+    }
+
+    // Adds the grid points a + k·h for k in [firstK, firstK + length) whose values are in the array. Chunks summed on
+    // different threads add their points through this method
+    public synchronized void addAll(double[] values, int length, double a, int firstK, double h){
+        for (int i = 0; i < length; i++)
+            add(a + (firstK + i)*h, values[i]);
+    }
+
+    // Range the buckets are spread over
+    public double getStart(){
+        return a;
+    }
+    public double getEnd(){
+        return b;
+    }
+
+    // Number of decimated points, at most 4 per pixel column
+    public int size(){
+        decimate();
+        return size;
+    }
+    public double getX(int i){
+        decimate();
+        return xPoints[i];
+    }
+    public double getFx(int i){
+        decimate();
+        return fxPoints[i];
+    }
+
+    private void decimate(){
+        if (decimated)
+            return;
+        size = 0;
+        for (int bucket = 0; bucket < width; bucket++){
+            if (Double.isNaN(firstX[bucket]))
+                continue;
+
+            // The extremes are emitted in the order they occur between the first and last point
+            addPoint(firstX[bucket], firstFx[bucket]);
+            if (minX[bucket] <= maxX[bucket]){
+                addPoint(minX[bucket], minFx[bucket]);
+                addPoint(maxX[bucket], maxFx[bucket]);
+            }
+            else{
+                addPoint(maxX[bucket], maxFx[bucket]);
+                addPoint(minX[bucket], minFx[bucket]);
+            }
+            addPoint(lastX[bucket], lastFx[bucket]);
+        }
+        decimated = true;
+    }
+
+    // Appends a point unless it repeats the previous one
+    private void addPoint(double x, double fx){
+        if (size > 0 && xPoints[size - 1] == x)
+            return;
+        xPoints[size] = x;
+        fxPoints[size] = fx;
+        size++;
+    }
+}
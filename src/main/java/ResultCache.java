@@ -0,0 +1,201 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Bounded cache of integration results, shared by the GUI and the batch runner so that repeated requests do not
+// recompute anything. Results are keyed by a 64-bit hash of the contents of the data set plus the parameters of the
+// rule, and hold the area together with the graph points. The least recently used result is evicted once the cache is
+// full, and results older than the time to live are dropped when they are next looked up.
+public class ResultCache {
+    // Defaults of the shared cache, overridable with -Dintegration.cache.size and -Dintegration.cache.ttl (seconds)
+    private static final int DEFAULT_SIZE = 64;
+    private static final long DEFAULT_TTL_SECONDS = 600;
+
+    private static final ResultCache SHARED = new ResultCache(Integer.getInteger("integration.cache.size", DEFAULT_SIZE),
+            Long.getLong("integration.cache.ttl", DEFAULT_TTL_SECONDS) * 1000);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    // A time to live of 0 or less keeps the results until they are evicted
+    ResultCache(int maxEntries, long ttlMillis){
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("Cache size must be positive.");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = (ttlMillis > 0) ? ttlMillis * 1_000_000 : Long.MAX_VALUE;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest){
+                if (size() <= ResultCache.this.maxEntries)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public static ResultCache shared(){
+        return SHARED;
+    }
+
+    // Returns the result stored for the key, or null if there is none or it has expired
+    public synchronized Entry get(Key key){
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.created > ttlNanos){
+            entries.remove(key);
+            expirations++;
+            entry = null;
+        }
+        if (entry == null)
+            misses++;
+        else
+            hits++;
+        return entry;
+    }
+
+    public synchronized void put(Key key, Entry entry){
+        entries.put(key, entry);
+    }
+
+    public synchronized void clear(){
+        entries.clear();
+    }
+
+    public synchronized int size(){
+        return entries.size();
+    }
+    public synchronized long getHits(){
+        return hits;
+    }
+    public synchronized long getMisses(){
+        return misses;
+    }
+    public synchronized long getEvictions(){
+        return evictions;
+    }
+    public synchronized long getExpirations(){
+        return expirations;
+    }
+
+    @Override
+    public synchronized String toString(){
+        return String.format("%d hits, %d misses, %d evictions, %d expirations, %d of %d entries", hits, misses,
+                evictions, expirations, entries.size(), maxEntries);
+    }
+
+    // 64-bit hash of the data points. The bits of every value are mixed in, so any change to the data changes it
+    static long fingerprint(double[] xValues, double[] fxValues){
+        long hash = 0x9E3779B97F4A7C15L ^ xValues.length;
+        for (int i = 0; i < xValues.length; i++){
+            hash = (hash ^ Double.doubleToLongBits(xValues[i])) * 0xBF58476D1CE4E5B9L;
+            hash = (hash ^ Double.doubleToLongBits(fxValues[i])) * 0x94D049BB133111EBL;
+            hash ^= hash >>> 31;
+        }
+        return hash;
+    }
+
+    // Data set and parameters of a run. The variant tells apart the summation orders, which give slightly different
+    // areas for the same parameters
+    public static final class Key {
+        private final long fingerprint;
+        private final int size;
+        private final IntegrationRule rule;
+        private final long n;
+        private final double parameter;
+        private final int levels;
+        private final String variant;
+
+        Key(long fingerprint, int size, IntegrationRule rule, long n, double parameter, int levels, String variant){
+            this.fingerprint = fingerprint;
+            this.size = size;
+            this.rule = rule;
+            this.n = n;
+            this.parameter = parameter;
+            this.levels = levels;
+            this.variant = variant;
+        }
+
+        boolean isRomberg(){
+            return rule == IntegrationRule.ROMBERG;
+        }
+
+        @Override
+        public boolean equals(Object other){
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key) other;
+            return fingerprint == key.fingerprint && size == key.size && rule == key.rule && n == key.n
+                    && Double.compare(parameter, key.parameter) == 0 && levels == key.levels
+                    && variant.equals(key.variant);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(fingerprint, size, rule, n, parameter, levels, variant);
+        }
+    }
+
+    // Area of a run, its function evaluations, Romberg tableau and error estimate if any, and the decimated graph points
+    public static final class Entry {
+        private final double area;
+        private final long functionEvaluations;
+        private final double[][] rombergTableau;
+        private final double errorEstimate;
+        private final double[] xPoints;
+        private final double[] fxPoints;
+        private final double plotStart;
+        private final double plotEnd;
+        private final long created = System.nanoTime();
+
+        Entry(double area, long functionEvaluations, double[][] rombergTableau, double errorEstimate,
+              PlotDecimator plot){
+            this.area = area;
+            this.functionEvaluations = functionEvaluations;
+            this.rombergTableau = copy(rombergTableau);
+            this.errorEstimate = errorEstimate;
+            this.xPoints = new double[plot.size()];
+            this.fxPoints = new double[plot.size()];
+            this.plotStart = plot.getStart();
+            this.plotEnd = plot.getEnd();
+            for (int i = 0; i < xPoints.length; i++){
+                xPoints[i] = plot.getX(i);
+                fxPoints[i] = plot.getFx(i);
+            }
+        }
+
+        public double getArea(){
+            return area;
+        }
+        public long getFunctionEvaluations(){
+            return functionEvaluations;
+        }
+        // A copy, so that what the integration hands out never changes the cached tableau
+        public double[][] getRombergTableau(){
+            return copy(rombergTableau);
+        }
+        public double getErrorEstimate(){
+            return errorEstimate;
+        }
+
+        // Spreads the decimator over the range of the graph and adds its points, which it keeps all
+        void restorePlot(PlotDecimator plot){
+            plot.reset(plotStart, plotEnd);
+            for (int i = 0; i < xPoints.length; i++)
+                plot.add(xPoints[i], fxPoints[i]);
+        }
+
+        private static double[][] copy(double[][] tableau){
+            if (tableau == null)
+                return null;
+            double[][] copy = new double[tableau.length][];
+            for (int j = 0; j < tableau.length; j++)
+                copy[j] = tableau[j].clone();
+            return copy;
+        }
+    }
+}
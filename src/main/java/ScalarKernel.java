@@ -0,0 +1,18 @@
+// Scalar weighted sum with Kahan compensation. It is the fallback when the vector API is not available
+public class ScalarKernel implements WeightedSumKernel {
+    @Override
+    public double weightedSum(double[] values, int length, int firstK, boolean trapRule){
+        double sum = 0, compensation = 0, term, total;
+        for (int i = 0; i < length; i++){
+            term = values[i];
+            if (!trapRule)
+                term *= ((firstK + i) % 2 == 0) ? 2 : 4;
+
+            term -= compensation;
+            total = sum + term;
+            compensation = (total - sum) - term;
+            sum = total;
+        }
+        return sum;
+    }
+}
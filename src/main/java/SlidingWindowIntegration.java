@@ -0,0 +1,216 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Integrates a live stream of samples over the last window of x (e.g. the last W seconds), updated on every sample.
+// The samples are kept in a primitive ring buffer together with the area of each interval and of each pair of
+// intervals, and running sums of those areas make adding and evicting a sample O(1). The area is the same as
+// NumericalIntegration.integrateSamples computes for the samples in the window: the Trapezoidal Rule over the
+// intervals, or Simpson's Rule over pairs of intervals starting from the oldest sample. Since the oldest sample changes
+// parity as samples are evicted, the pair areas are summed separately for pairs starting at even and odd samples.
+// Adding and subtracting lets rounding errors build up, so the sums are recomputed from the stored areas periodically.
+//
+// Usage: SlidingWindowIntegration <window> [trapezoidal | simpsons] [port]
+// reads "x,f(x)" lines from the standard input, or from a connection on the local port, and prints "x,area" per sample.
+public class SlidingWindowIntegration {
+    // Minimum number of samples between two recomputations of the running sums
+    private static final int REBASE_INTERVAL = 1 << 16;
+
+    private final double window;
+    private final boolean trapRule;
+    private final List<SlidingWindowListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Ring buffer indexed by sample number & mask. intervalAreas[i] is the area over [x(i), x(i+1)] and pairAreas[i]
+    // the Simpson area over [x(i), x(i+2)], stored once the samples they need have arrived
+    private double[] xValues = new double[16];
+    private double[] fxValues = new double[16];
+    private double[] intervalAreas = new double[16];
+    private double[] pairAreas = new double[16];
+    private int mask = 15;
+
+    // Numbers of the oldest sample in the window and of the next sample
+    private long first;
+    private long next;
+
+    // Trapezoidal sum of the intervals in the window, and Simpson sums of the pairs in the window starting at even
+    // and odd sample numbers
+    private double intervalSum;
+    private final double[] pairSums = new double[2];
+    private long appendsSinceRebase;
+
+    SlidingWindowIntegration(double window, boolean trapRule){
+        if (!(window > 0) || Double.isInfinite(window))
+            throw new IllegalArgumentException("Window must be positive.");
+        this.window = window;
+        this.trapRule = trapRule;
+    }
+
+    public static void main(String[] args) throws IOException, IllegalFileContentsException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: SlidingWindowIntegration <window> [trapezoidal | simpsons] [port]");
+            System.exit(2);
+        }
+        double window = NumberLexer.parse(args[0]);
+        IntegrationRule rule = (args.length < 2) ? IntegrationRule.TRAPEZOIDAL : IntegrationRule.fromName(args[1]);
+        if (rule != IntegrationRule.TRAPEZOIDAL && rule != IntegrationRule.SIMPSONS) {
+            System.err.println("Rule must be trapezoidal or simpsons.");
+            System.exit(2);
+        }
+        SlidingWindowIntegration integration = new SlidingWindowIntegration(window, rule == IntegrationRule.TRAPEZOIDAL);
+        PrintWriter output = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out,
+                StandardCharsets.UTF_8), 1 << 16));
+        integration.addListener((x, area) -> output.append(Double.toString(x)).append(',')
+                .append(Double.toString(area)).append('\n'));
+
+        if (args.length < 3)
+            integration.read(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        else {
+            try (ServerSocket server = new ServerSocket(Integer.parseInt(args[2]), 1, InetAddress.getLoopbackAddress());
+                 Socket socket = server.accept()) {
+                integration.read(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            }
+        }
+        output.flush();
+    }
+
+    public void addListener(SlidingWindowListener listener){
+        listeners.add(listener);
+    }
+    public void removeListener(SlidingWindowListener listener){
+        listeners.remove(listener);
+    }
+
+    // Adds the samples of "x,f(x)" lines until the end of the input, with the validation of data files
+    public void read(Reader input) throws IOException, IllegalFileContentsException {
+        BufferedReader reader = new BufferedReader(input, 1 << 16);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comma = line.indexOf(',');
+            if (comma == -1 || line.indexOf(',', comma + 1) != -1)
+                throw new IllegalFileContentsException(lineNumber);
+            try {
+                add(NumberLexer.parse(line, 0, comma), NumberLexer.parse(line, comma + 1, line.length()));
+            } catch (NumberFormatException exception) {
+                throw new IllegalFileContentsException(lineNumber);
+            }
+        }
+    }
+
+    // Adds a sample, evicts the samples that fell out of the window and notifies the listeners. Samples must arrive
+    // in ascending order of x. Every sample, the first one included, must be finite
+    public double add(double x, double fx){
+        if (!Double.isFinite(x) || !Double.isFinite(fx))
+            throw new IllegalArgumentException("Samples must be finite.");
+        if (next > first && !(x > xValues[(int) ((next - 1) & mask)]))
+            throw new IllegalArgumentException("Samples must arrive in ascending order of x.");
+        if (next - first == xValues.length)
+            grow();
+
+        int slot = (int) (next & mask);
+        xValues[slot] = x;
+        fxValues[slot] = fx;
+        if (next - first >= 1){
+            int previous = (int) ((next - 1) & mask);
+            intervalAreas[previous] = (x - xValues[previous]) * (fxValues[previous] + fx) / 2;
+            intervalSum += intervalAreas[previous];
+        }
+        if (next - first >= 2){
+            int start = (int) ((next - 2) & mask);
+            pairAreas[start] = pairArea(start, (int) ((next - 1) & mask), slot);
+            pairSums[(int) ((next - 2) & 1)] += pairAreas[start];
+        }
+        next++;
+
+        // The interval and pair starting at an evicted sample leave the sums with it
+        while (xValues[(int) (first & mask)] < x - window){
+            int oldest = (int) (first & mask);
+            intervalSum -= intervalAreas[oldest];
+            if (next - first >= 3)
+                pairSums[(int) (first & 1)] -= pairAreas[oldest];
+            first++;
+        }
+
+        if (++appendsSinceRebase >= Math.max(REBASE_INTERVAL, next - first))
+            rebase();
+
+        double area = getArea();
+        for (SlidingWindowListener listener : listeners)
+            listener.update(x, area);
+        return area;
+    }
+
+    // Area over the samples in the window, 0 until it has 2 samples (3 for Simpson's Rule)
+    public double getArea(){
+        long intervals = next - first - 1;
+        if (trapRule)
+            return (intervals >= 1) ? intervalSum : 0;
+        if (intervals < 2)
+            return 0;
+
+        double area = pairSums[(int) (first & 1)];
+        // Last interval left over when the number of intervals is odd, on the parabola through the last 3 samples
+        if (intervals % 2 == 1){
+            int i0 = (int) ((next - 3) & mask), i1 = (int) ((next - 2) & mask), i2 = (int) ((next - 1) & mask);
+            double h0 = xValues[i1] - xValues[i0], h1 = xValues[i2] - xValues[i1];
+            area += (2 * h1 * h1 + 3 * h0 * h1) / (6 * (h0 + h1)) * fxValues[i2]
+                    + (h1 * h1 + 3 * h0 * h1) / (6 * h0) * fxValues[i1]
+                    - h1 * h1 * h1 / (6 * h0 * (h0 + h1)) * fxValues[i0];
+        }
+        return area;
+    }
+
+    // Number of samples in the window
+    public int size(){
+        return (int) (next - first);
+    }
+
+    // Sums of the areas of the intervals and pairs in the window, recomputed in the window's order
+    private void rebase(){
+        intervalSum = 0;
+        pairSums[0] = pairSums[1] = 0;
+        for (long i = first; i < next - 1; i++)
+            intervalSum += intervalAreas[(int) (i & mask)];
+        for (long i = first; i < next - 2; i++)
+            pairSums[(int) (i & 1)] += pairAreas[(int) (i & mask)];
+        appendsSinceRebase = 0;
+    }
+
+    // Simpson area over [x(i0), x(i2)] with the weights for unequal widths, as in integrateSamples
+    private double pairArea(int i0, int i1, int i2){
+        double h0 = xValues[i1] - xValues[i0], h1 = xValues[i2] - xValues[i1];
+        return (h0 + h1) / 6 * ((2 - h1 / h0) * fxValues[i0]
+                + (h0 + h1) * (h0 + h1) / (h0 * h1) * fxValues[i1]
+                + (2 - h0 / h1) * fxValues[i2]);
+    }
+
+    // Doubles the ring buffer, keeping each sample at its number & mask
+    private void grow(){
+        int capacity = xValues.length * 2;
+        double[] x = new double[capacity], fx = new double[capacity];
+        double[] intervals = new double[capacity], pairs = new double[capacity];
+        for (long i = first; i < next; i++){
+            int from = (int) (i & mask), to = (int) (i & (capacity - 1));
+            x[to] = xValues[from];
+            fx[to] = fxValues[from];
+            intervals[to] = intervalAreas[from];
+            pairs[to] = pairAreas[from];
+        }
+        xValues = x;
+        fxValues = fx;
+        intervalAreas = intervals;
+        pairAreas = pairs;
+        mask = capacity - 1;
+    }
+}
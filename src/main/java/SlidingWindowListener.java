@@ -0,0 +1,5 @@
+// Receives the area of a sliding window after each sample. Listeners are called on the thread that adds the samples,
+// so the GUI should hand the values over to the event-dispatch thread
+public interface SlidingWindowListener {
+    void update(double x, double area);
+}
@@ -0,0 +1,169 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CancellationException;
+
+// Integrates a .txt or .csv file in a single pass without loading it. The file is memory-mapped in segments and only
+// the last 3 data points are kept, which is all the quadratic interpolation needs, so memory use does not grow with the
+// size of the file. The area and graph points are the same as NumericalIntegration computes for the loaded data.
+public class StreamingIntegration {
+    // Number of bytes mapped at a time
+    private static final int SEGMENT_SIZE = 1 << 26;
+
+    // The progress is reported, and cancellation checked, every PROGRESS_MASK + 1 rows
+    private static final int PROGRESS_MASK = (1 << 14) - 1;
+
+    private final int n;
+    private final double h;
+    private final boolean trapRule;
+    private final PlotDecimator plot = new PlotDecimator(PlotDecimator.DEFAULT_WIDTH);
+
+    // Sliding window of the last 3 data points, oldest first
+    private final double[] windowX = new double[3];
+    private final double[] windowFx = new double[3];
+    private final StringBuilder line = new StringBuilder();
+    private IntegrationProgress progress = IntegrationProgress.NONE;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long length;
+    private long count;
+    private double a;
+    private double fxo;
+
+    // Next grid point to evaluate and the running sum of the rule, which includes f(a) for Simpson's Rule
+    private int k;
+    private double xk;
+    private double sum;
+
+    StreamingIntegration(int n, double h, boolean trapRule){
+        this.n = n;
+        this.h = h;
+        this.trapRule = trapRule;
+    }
+
+    public double integrate(File file) throws IOException, IllegalFileContentsException, InsufficientDataException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            length = channel.size();
+            boolean carriageReturn = false;
+
+            for (segmentStart = 0; segmentStart < length; segmentStart += SEGMENT_SIZE){
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart,
+                        Math.min(SEGMENT_SIZE, length - segmentStart));
+                while (segment.hasRemaining()){
+                    char c = (char) (segment.get() & 0xFF);
+
+                    // A line ends at \n, \r or \r\n
+                    if (c == '\n' && carriageReturn)
+                        carriageReturn = false;
+                    else if (c == '\n' || c == '\r'){
+                        carriageReturn = c == '\r';
+                        readLine();
+                    }
+                    else{
+                        carriageReturn = false;
+                        line.append(c);
+                    }
+                }
+            }
+            // Last line without a line terminator
+            if (line.length() > 0)
+                readLine();
+        }
+
+        // Data set must contain at least 3 data points
+        if (count < 3)
+            throw new InsufficientDataException();
+        return finish();
+    }
+
+    // Receives the fraction of the file read so far. The integration stops with a CancellationException once it is
+    // cancelled
+    public void setProgress(IntegrationProgress progress){
+        this.progress = progress;
+    }
+
+    // Decimated points of the interpolant. The end of the file is not known in advance, so the buckets span the grid
+    public PlotDecimator getPlot() {
+        return plot;
+    }
+
+    // Applies the same validation as reading the whole file: 1 comma per row and 2 parsable numbers
+    private void readLine() throws IllegalFileContentsException {
+        int comma = line.indexOf(",");
+        if (comma == -1 || line.indexOf(",", comma + 1) != -1)
+            throw new IllegalFileContentsException(count + 1);
+
+        double x, fx;
+        try {
+            x = NumberLexer.parse(line, 0, comma);
+            fx = NumberLexer.parse(line, comma + 1, line.length());
+        } catch (NumberFormatException exception) {
+            throw new IllegalFileContentsException(count + 1);
+        }
+        line.setLength(0);
+        addDataPoint(x, fx);
+
+        if ((count & PROGRESS_MASK) == 0){
+            if (progress.isCancelled())
+                throw new CancellationException();
+            progress.update((double) (segmentStart + segment.position()) / length);
+        }
+    }
+
+    private void addDataPoint(double x, double fx){
+        if (count == 0){
+            a = x;
+            fxo = fx;
+            k = 1;
+            xk = a + h;
+            sum = (trapRule) ? 0 : fxo;
+            plot.reset(a, a + n*h);
+            plot.add(a, fxo);
+        }
+
+        windowX[0] = windowX[1];
+        windowFx[0] = windowFx[1];
+        windowX[1] = windowX[2];
+        windowFx[1] = windowFx[2];
+        windowX[2] = x;
+        windowFx[2] = fx;
+        count++;
+
+        // Grid points up to the middle data point lie between the first two points of the window, so they are
+        // interpolated with the same 3 data points as the whole data set would use
+        if (count >= 3)
+            evaluateUpTo(windowX[1]);
+    }
+
+    // Evaluates the remaining grid points with the last 3 data points and adds the end points
+    private double finish(){
+        evaluateUpTo(Double.POSITIVE_INFINITY);
+
+        double b = windowX[2], fxn = windowFx[2];
+        plot.add(b, fxn);
+        if (trapRule)
+            return h * (fxo + 2 * sum + fxn) / 2;
+        else
+            return h * (sum + fxn) / 3;
+    }
+
+    private void evaluateUpTo(double limit){
+        double fxk;
+        while (k < n && xk <= limit){
+            if (xk == windowX[1])
+                fxk = windowFx[1];
+            else if (xk == windowX[2])
+                fxk = windowFx[2];
+            else
+                fxk = NumericalIntegration.lagrangeInterpolation(windowX, windowFx, 0, xk);
+
+            sum += (trapRule) ? fxk : ((k % 2 == 0) ? 2 : 4) * fxk;
+            plot.add(xk, fxk);
+            k++;
+            xk = a + k*h;
+        }
+    }
+}
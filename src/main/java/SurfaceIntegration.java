@@ -0,0 +1,178 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Integrates f(x, y) over a rectangular grid of samples with the tensor product of the Trapezoidal or Simpson's Rule.
+// The surface between the samples is the tensor product of the 1D interpolant, quadratic Lagrange (biquadratic) or
+// linear (bilinear). Interpolation is linear in the samples, so the 2D rule factors into 1D ones: each row of samples
+// is integrated along x by the 1D rule of NumericalIntegration, and the row areas, as a function of y, are integrated
+// along y the same way. This equals evaluating the rule on the interpolated surface at every grid point, with one
+// pass per sample row instead of one per grid row. The rows are swept in parallel, in blocks that do not depend on the
+// number of threads; each block walks the x grid once and applies the interpolation weights of every grid point to
+// all of its rows.
+//
+// Usage: SurfaceIntegration <file> <nx> <hx> <ny> <hy> [trapezoidal | simpsons] [biquadratic | bilinear]
+// where each row of the .txt, .csv or .dset file is a sample "x,y,f(x,y)".
+public class SurfaceIntegration {
+    // Number of sample rows integrated by each task
+    private static final int ROWS_PER_TASK = 64;
+
+    private static final String ROW_FORMAT = "Each row must have 3 numbers separated by 2 commas.";
+
+    private final double[] xValues;
+    private final double[] yValues;
+    private final double[] fValues;
+    private final boolean xUniform;
+    private final boolean yUniform;
+    private boolean bilinear;
+
+    // The samples are in row-major order: f(xValues[i], yValues[j]) is fValues[j * xValues.length + i]. The x and y
+    // values must be sorted in ascending order
+    SurfaceIntegration(double[] xValues, double[] yValues, double[] fValues){
+        if (xValues.length < 3 || yValues.length < 3)
+            throw new IllegalArgumentException("At least 3 x values and 3 y values are needed.");
+        if (fValues.length != (long) xValues.length * yValues.length)
+            throw new IllegalArgumentException("There must be one value per grid point.");
+        this.xValues = xValues;
+        this.yValues = yValues;
+        this.fValues = fValues;
+        this.xUniform = new IntervalLocator(xValues).isUniform();
+        this.yUniform = new IntervalLocator(yValues).isUniform();
+    }
+
+    // Arranges samples given in any order into a grid. Every combination of their x and y values must appear once
+    public static SurfaceIntegration fromScattered(double[] x, double[] y, double[] f){
+        if (x.length != y.length || x.length != f.length)
+            throw new IllegalArgumentException("Every sample must have an x, a y and a value.");
+        double[] xValues = distinct(x), yValues = distinct(y);
+        if ((long) xValues.length * yValues.length != f.length)
+            throw new IllegalArgumentException("Samples must cover a rectangular grid.");
+
+        double[] fValues = new double[f.length];
+        boolean[] filled = new boolean[f.length];
+        for (int s = 0; s < f.length; s++){
+            int cell = Arrays.binarySearch(yValues, y[s]) * xValues.length + Arrays.binarySearch(xValues, x[s]);
+            if (filled[cell])
+                throw new IllegalArgumentException("Samples must cover a rectangular grid.");
+            filled[cell] = true;
+            fValues[cell] = f[s];
+        }
+        return new SurfaceIntegration(xValues, yValues, fValues);
+    }
+
+    // Reads "x,y,f(x,y)" rows in any order
+    public static SurfaceIntegration read(File file) throws FileNotFoundException, FileFormatException, IllegalFileContentsException, InsufficientDataException {
+        Dataset dataset;
+        try {
+            dataset = DataReader.readChannels(file);
+        } catch (IllegalFileContentsException exception) {
+            throw new IllegalFileContentsException(ROW_FORMAT, exception.getLine());
+        }
+        if (dataset.getChannelCount() != 2)
+            throw new IllegalFileContentsException(ROW_FORMAT, 1);
+        try {
+            return fromScattered(dataset.getxValues(), dataset.getChannel(0), dataset.getChannel(1));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalFileContentsException(exception.getMessage(), 0);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5 || args.length > 7) {
+            System.err.println("Usage: SurfaceIntegration <file> <nx> <hx> <ny> <hy> [trapezoidal | simpsons] "
+                    + "[biquadratic | bilinear]");
+            System.exit(2);
+        }
+        IntegrationRule rule = (args.length < 6) ? IntegrationRule.TRAPEZOIDAL : IntegrationRule.fromName(args[5]);
+        if (rule != IntegrationRule.TRAPEZOIDAL && rule != IntegrationRule.SIMPSONS) {
+            System.err.println("Rule must be trapezoidal or simpsons.");
+            System.exit(2);
+        }
+        SurfaceIntegration surface = read(new File(args[0]));
+        boolean trapRule = rule == IntegrationRule.TRAPEZOIDAL;
+        surface.setBilinear(args.length == 7 && args[6].trim().equalsIgnoreCase("bilinear"));
+
+        long start = System.nanoTime();
+        double volume = surface.integrate(Integer.parseInt(args[1].trim()), NumberLexer.parse(args[2]),
+                Integer.parseInt(args[3].trim()), NumberLexer.parse(args[4]), trapRule,
+                Runtime.getRuntime().availableProcessors());
+        System.out.println(volume);
+        System.err.printf(Locale.ROOT, "%d x %d samples in %.3f s%n", surface.xValues.length, surface.yValues.length,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    // Interpolates linearly between the samples instead of with parabolas
+    public void setBilinear(boolean bilinear){
+        this.bilinear = bilinear;
+    }
+
+    // Volume over [x0, x0 + nx·hx] × [y0, y0 + ny·hy], where x0 and y0 are the first x and y values, with nx and ny
+    // sub-intervals along each axis. Simpson's Rule needs even nx and ny
+    public double integrate(int nx, double hx, int ny, double hy, boolean trapRule, int parallelism){
+        if (nx < 1 || ny < 1 || !(hx > 0) || !(hy > 0))
+            throw new IllegalArgumentException("N and h must be positive.");
+        if (!trapRule && (nx % 2 == 1 || ny % 2 == 1))
+            throw new IllegalArgumentException("N must be even for Simpson's Rule.");
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive.");
+
+        int rows = yValues.length;
+        double[] rowAreas = new double[rows];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int first = 0; first < rows; first += ROWS_PER_TASK){
+            int from = first, to = Math.min(rows, first + ROWS_PER_TASK);
+            tasks.add(() -> {
+                System.arraycopy(integrateRows(xValues, xUniform, fValues, from, to, nx, hx, trapRule), 0, rowAreas,
+                        from, to - from);
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks))
+                future.get();
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        } finally {
+            pool.shutdown();
+        }
+        return integrateRows(yValues, yUniform, rowAreas, 0, 1, ny, hy, trapRule)[0];
+    }
+
+    // 1D rule along an axis, with the chosen interpolant, over the sample rows [from, to) of samples, where row j holds
+    // the values at the axis samples from samples[j * values.length]. The rows go through
+    // NumericalIntegration.integrateRows, so each area is the one NumericalIntegration.integrate computes for the row
+    private double[] integrateRows(double[] values, boolean uniform, double[] samples, int from, int to, int n,
+                                   double h, boolean trapRule){
+        double[][] rows = new double[to - from][];
+        for (int j = from; j < to; j++)
+            rows[j - from] = Arrays.copyOfRange(samples, j * values.length, (j + 1) * values.length);
+        LocalInterpolator interpolator = (bilinear) ? new LinearInterpolator(values, rows[0])
+                : new LagrangeInterpolator(values, rows[0]);
+        return NumericalIntegration.integrateRows(values, rows, new IntervalLocator(values, new IntegrationMetrics(),
+                uniform), interpolator, WeightedSumKernels.initial(), n, h, trapRule, null);
+    }
+
+    // Sorted values without repetitions
+    private static double[] distinct(double[] values){
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++){
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[count++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+}
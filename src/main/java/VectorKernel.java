@@ -0,0 +1,47 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Weighted sum using the widest vectors supported by the CPU. Needs the jdk.incubator.vector module at runtime,
+// WeightedSumKernels falls back to ScalarKernel when it cannot be loaded
+public class VectorKernel implements WeightedSumKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // Simpson weights of a vector whose first lane is an even or an odd grid point
+    private final DoubleVector evenWeights;
+    private final DoubleVector oddWeights;
+
+    public VectorKernel(){
+        int lanes = SPECIES.length();
+        double[] even = new double[lanes], odd = new double[lanes];
+        for (int i = 0; i < lanes; i++){
+            even[i] = (i % 2 == 0) ? 2 : 4;
+            odd[i] = (i % 2 == 0) ? 4 : 2;
+        }
+        evenWeights = DoubleVector.fromArray(SPECIES, even, 0);
+        oddWeights = DoubleVector.fromArray(SPECIES, odd, 0);
+    }
+
+    @Override
+    public double weightedSum(double[] values, int length, int firstK, boolean trapRule){
+        int lanes = SPECIES.length(), bound = SPECIES.loopBound(length), i = 0;
+        DoubleVector accumulator = DoubleVector.zero(SPECIES);
+
+        if (trapRule){
+            for (; i < bound; i += lanes)
+                accumulator = accumulator.add(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        else{
+            for (; i < bound; i += lanes){
+                DoubleVector weights = ((firstK + i) % 2 == 0) ? evenWeights : oddWeights;
+                accumulator = DoubleVector.fromArray(SPECIES, values, i).fma(weights, accumulator);
+            }
+        }
+
+        // Remaining points that do not fill a vector
+        double sum = accumulator.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++)
+            sum += (trapRule) ? values[i] : values[i] * (((firstK + i) % 2 == 0) ? 2 : 4);
+        return sum;
+    }
+}
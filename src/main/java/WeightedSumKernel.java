@@ -0,0 +1,5 @@
+// Weighted sum of the f(xk) values of a block of grid points. The Trapezoidal Rule weights every interior point
+// equally and Simpson's Rule weights odd points by 4 and even points by 2, where k is the grid index of the point
+public interface WeightedSumKernel {
+    double weightedSum(double[] values, int length, int firstK, boolean trapRule);
+}
@@ -0,0 +1,35 @@
+// Chooses the weighted sum kernel. The vector kernel is loaded by name so that this class, and the rest of the
+// program, still runs when the JVM was started without --add-modules jdk.incubator.vector
+public final class WeightedSumKernels {
+    public static final WeightedSumKernel SCALAR = new ScalarKernel();
+    private static final WeightedSumKernel BEST = loadVectorKernel();
+
+    // Whether new integrations use the vector kernel, set with -Dintegration.vector=true. It only takes effect when the
+    // JVM is also started with --add-modules jdk.incubator.vector
+    public static final boolean VECTORIZED_BY_DEFAULT = Boolean.getBoolean("integration.vector");
+
+    private WeightedSumKernels(){
+    }
+
+    // Returns the vector kernel if available, the scalar kernel otherwise
+    public static WeightedSumKernel best(){
+        return BEST;
+    }
+
+    // Kernel of new integrations
+    public static WeightedSumKernel initial(){
+        return (VECTORIZED_BY_DEFAULT) ? BEST : SCALAR;
+    }
+
+    public static boolean isVectorized(){
+        return BEST != SCALAR;
+    }
+
+    private static WeightedSumKernel loadVectorKernel(){
+        try {
+            return (WeightedSumKernel) Class.forName("VectorKernel").getDeclaredConstructor().newInstance();
+        } catch (Exception | LinkageError exception) {
+            return SCALAR;
+        }
+    }
+}